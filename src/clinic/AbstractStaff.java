@@ -4,26 +4,32 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * This class implements {@link StaffInterface} and represents a staff member in {@link Clinic}.
  * This class provides shared functionality and fields to be used by staff for different 
  * types of jobs, such as {@link ClinicalStaff} and {@link NonClinicalStaff}.
  * 
+ * Staff members are identified by their immutable ID in equals() and hashCode(), so a staff 
+ * member can be used as a hash key while its assignments change. Use deepEquals() to 
+ * compare all the fields.
+ * 
+ * The assigned patients are kept in immutable {@link PersistentSortedSet}s, which are replaced 
+ * on every assignment change, so they can be handed out and copied without copying elements.
  */
 public abstract class AbstractStaff implements StaffInterface {
   private static int lastNumberAssigned = 0;
   
   protected String npiCpr;
-  protected final SortedSet<PatientInterface> assignedPatients;
-  protected final SortedSet<PatientInterface> everAssigned;
+  protected PersistentSortedSet<PatientInterface> assignedPatients;
+  protected PersistentSortedSet<PatientInterface> everAssigned;
   private final int staffId;
   private final String firstName;
   private final String lastName;
   private String jobTitle;
   private EducationLevel educationLevel;
   private Boolean active;
+  private final int hash;
   
   /**
    * Constructor which initializes all the fields.
@@ -50,9 +56,10 @@ public abstract class AbstractStaff implements StaffInterface {
     this.jobTitle = jobTitle;
     this.educationLevel = EducationLevel.valueOf(educationLevel);
     this.npiCpr = null;
-    this.assignedPatients = new TreeSet<>();
-    this.everAssigned = new TreeSet<>();
+    this.assignedPatients = PersistentSortedSet.empty();
+    this.everAssigned = PersistentSortedSet.empty();
     this.active = true; 
+    this.hash = Integer.hashCode(staffId);
   }
   
   /**
@@ -70,9 +77,10 @@ public abstract class AbstractStaff implements StaffInterface {
     this.jobTitle = other.jobTitle;
     this.educationLevel = other.educationLevel;
     this.npiCpr = other.npiCpr;
-    this.assignedPatients = new TreeSet<>(other.assignedPatients);
-    this.everAssigned = new TreeSet<>(other.everAssigned);
+    this.assignedPatients = other.assignedPatients; // immutable, safe to share
+    this.everAssigned = other.everAssigned;
     this.active = other.active;
+    this.hash = other.hash;
   }
   
   @Override
@@ -102,12 +110,12 @@ public abstract class AbstractStaff implements StaffInterface {
   
   @Override
   public SortedSet<PatientInterface> getAssignedPatients() {
-    return new TreeSet<>(assignedPatients);
+    return assignedPatients; // immutable, no need to return a copy
   }
   
   @Override
   public SortedSet<PatientInterface> getEverAssigned() {
-    return new TreeSet<>(everAssigned);
+    return everAssigned;
   }
   
   @Override
@@ -153,12 +161,46 @@ public abstract class AbstractStaff implements StaffInterface {
     this.active = active;
   }
   
+  /**
+   * Compares to another object for equality.
+   * They are considered equal when they are staff members of the same class and ID.
+   * 
+   * @param o the object to compare with
+   * @return true if the objects are equal, false otherwise
+   */
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) { 
+      return true;
+    }
+    if (o == null || o.getClass() != getClass()) {
+      return false;
+    }
+    return this.staffId == ((AbstractStaff) o).staffId;
+  }
+
+  /**
+   * Returns the hash code of the staff ID, which is computed once at creation.
+   * 
+   * @return the hash code for this object
+   */
   @Override
-  public boolean equals(Object o) {
+  public final int hashCode() {
+    return hash;
+  }
+  
+  /**
+   * This is for JUnit testing purpose to compare all the fields of two staff members, 
+   * therefore it is not included in the contract defined by StaffInterface.
+   * 
+   * @param o the object to compare with
+   * @return true if all the fields are equal, false otherwise
+   */
+  public boolean deepEquals(Object o) {
     if (this == o) { 
       return true;
     }
-    if (!(o instanceof AbstractStaff)) {
+    if (o == null || o.getClass() != getClass()) {
       return false;
     }
     AbstractStaff that = (AbstractStaff) o;
@@ -169,13 +211,7 @@ public abstract class AbstractStaff implements StaffInterface {
         && this.educationLevel.equals(that.educationLevel)
         && this.assignedPatients.equals(that.assignedPatients) 
         && this.npiCpr.equals(that.npiCpr) 
-        && this.active == that.active;
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(staffId, firstName, lastName, jobTitle, educationLevel, 
-        assignedPatients, npiCpr, active);
+        && Objects.equals(this.active, that.active);
   }
   
   /**
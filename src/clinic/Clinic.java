@@ -1,14 +1,33 @@
 package clinic;
 
 import clinic.NonClinicalStaff.CprLevel;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class implements {@link ClinicInterface} and represents a clinic including its information.
@@ -18,15 +37,70 @@ import java.util.stream.Collectors;
  * - {@code rooms}: the list of instances of the {@link Room} in clinic
  * - {@code staffs}: the list of instances of {@link ClinicalStaff} and {@link NonClinicalStaff}
  * - {@code patients}: the list of instances of {@link Patient} being treated in clinic
+ * - {@code roomOccupants}: the patients currently in each room, keyed by room ID
+ * - {@code assignedStaff}: the staff currently assigned to each patient, keyed by patient ID
+ * - {@code everAssignedStaff}: the staff ever assigned to each patient, keyed by patient ID
+ * - {@code patientKeys}: the registered patients keyed by (last name, first name, date of birth)
+ * - {@code nameIndex}: the registered patients indexed by the words of their names for search
+ * - {@code visitIndex}: the {@link VisitStore} rows of all visit records, keyed by registration 
+ *   date and time
+ * - {@code lastVisits}: the date and time of the last visit of each patient, keyed by patient ID
+ * - {@code lastVisitIndex}: the patients keyed by the date and time of their last visit
+ * - {@code frequentCounter}: the number of visits of each patient in the last queried window
+ * - {@code workload}: the active clinical staff ordered by their number of assigned patients
+ * - {@code dailyPatients}: the HyperLogLog sketch of the patients who visited on each day, 
+ *   where patients are identified by name and date of birth to count them across clinics
+ * - {@code monthlyPatients}, {@code yearlyPatients}: the same sketches for each month and 
+ *   year, so a long range merges whole years and months and only the days at its ends
+ * - {@code occupancyHistory}: the recent occupancy samples of each room, in ring buffers
+ * - {@code clock}: the clock giving the time of the occupancy samples
+ * - {@code roomsById}, {@code staffById}, {@code patientsById}: the entities indexed by their 
+ *   sequential IDs, with null in the slots of IDs not in this clinic
+ * - {@code version}: the number of changes made to the model through this clinic
+ * - {@code roomsSnapshot}, {@code staffSnapshot}, {@code patientsSnapshot}: the read-only 
+ *   views handed out by the getters, rebuilt only after the underlying list changes
+ * - {@code roomInfoCache}, {@code seatingLineCache}: the rendered text of each room for 
+ *   roomInfo() and seatingChart(), keyed by room ID, dropped when the room's occupants 
+ *   (or for roomInfo(), their assigned staff or last visit) change through this clinic
+ * - {@code seatingChartCache}: the rendered seating chart, or null after any room changes
  */
 public class Clinic implements ClinicInterface {
   
   private static Clinic instance;
+  private static final Comparator<StaffInterface> STAFF_BY_ID = 
+      Comparator.comparingInt(StaffInterface::getId);
+  private static final int OCCUPANCY_SAMPLES = 4096;
+  private static final int VISIT_BATCH_LINES = 1 << 16;
   
   private String clinicName;
   private final List<RoomInterface> rooms;
   private final List<StaffInterface> staffs;
   private final List<PatientInterface> patients;
+  private final Map<Integer, SortedSet<PatientInterface>> roomOccupants;
+  private final Map<Integer, SortedSet<StaffInterface>> assignedStaff;
+  private final Map<Integer, SortedSet<StaffInterface>> everAssignedStaff;
+  private final Map<List<Object>, PatientInterface> patientKeys;
+  private final PatientNameIndex nameIndex;
+  private final NavigableMap<LocalDateTime, int[]> visitIndex;
+  private final Map<Integer, LocalDateTime> lastVisits;
+  private final NavigableMap<LocalDateTime, SortedSet<PatientInterface>> lastVisitIndex;
+  private final VisitWindowCounter frequentCounter;
+  private final WorkloadIndex workload;
+  private final NavigableMap<LocalDate, HyperLogLog> dailyPatients;
+  private final Map<YearMonth, HyperLogLog> monthlyPatients;
+  private final Map<Year, HyperLogLog> yearlyPatients;
+  private final OccupancyHistory occupancyHistory;
+  private Clock clock;
+  private final List<RoomInterface> roomsById;
+  private final List<StaffInterface> staffById;
+  private final List<PatientInterface> patientsById;
+  private int version;
+  private List<RoomInterface> roomsSnapshot;
+  private List<StaffInterface> staffSnapshot;
+  private List<PatientInterface> patientsSnapshot;
+  private final Map<Integer, String> roomInfoCache;
+  private final Map<Integer, String> seatingLineCache;
+  private String seatingChartCache;
 
   /**
    * Default constructor of Clinic. 
@@ -36,6 +110,26 @@ public class Clinic implements ClinicInterface {
     rooms = new ArrayList<>();
     staffs = new ArrayList<>();
     patients = new ArrayList<>();
+    roomOccupants = new HashMap<>();
+    assignedStaff = new HashMap<>();
+    everAssignedStaff = new HashMap<>();
+    patientKeys = new HashMap<>();
+    nameIndex = new PatientNameIndex();
+    visitIndex = new TreeMap<>();
+    lastVisits = new HashMap<>();
+    lastVisitIndex = new TreeMap<>();
+    frequentCounter = new VisitWindowCounter(visitIndex);
+    workload = new WorkloadIndex();
+    dailyPatients = new TreeMap<>();
+    monthlyPatients = new HashMap<>();
+    yearlyPatients = new HashMap<>();
+    occupancyHistory = new OccupancyHistory(OCCUPANCY_SAMPLES);
+    clock = Clock.systemDefaultZone();
+    roomsById = new ArrayList<>();
+    staffById = new ArrayList<>();
+    patientsById = new ArrayList<>();
+    roomInfoCache = new HashMap<>();
+    seatingLineCache = new HashMap<>();
   }
 
   /**
@@ -60,142 +154,245 @@ public class Clinic implements ClinicInterface {
 
   @Override
   public List<RoomInterface> getRooms() {
-    return new ArrayList<>(rooms); // Returning a copy
+    if (roomsSnapshot == null) { // Copy once per change, then share the read-only view
+      roomsSnapshot = Collections.unmodifiableList(new ArrayList<>(rooms));
+    }
+    return roomsSnapshot;
   }
 
   @Override
   public List<StaffInterface> getStaff() {
-    return new ArrayList<>(staffs); // Returning a copy
+    if (staffSnapshot == null) {
+      staffSnapshot = Collections.unmodifiableList(new ArrayList<>(staffs));
+    }
+    return staffSnapshot;
   }
 
   @Override
   public List<PatientInterface> getPatients() {
-    return new ArrayList<>(patients); // Returning a copy
+    if (patientsSnapshot == null) {
+      patientsSnapshot = Collections.unmodifiableList(new ArrayList<>(patients));
+    }
+    return patientsSnapshot;
+  }
+  
+  @Override
+  public int getVersion() {
+    return version;
+  }
+  
+  @Override
+  public RoomInterface findRoomById(int id) {
+    return findById(roomsById, id);
+  }
+  
+  @Override
+  public StaffInterface findStaffById(int id) {
+    return findById(staffById, id);
+  }
+  
+  @Override
+  public PatientInterface findPatientById(int id) {
+    return findById(patientsById, id);
+  }
+  
+  @Override
+  public List<StaffInterface> getAssignedStaff(PatientInterface patient) {
+    SortedSet<StaffInterface> staffSet = assignedStaff.get(patient.getId());
+    return staffSet == null ? new ArrayList<>() : new ArrayList<>(staffSet);
+  }
+  
+  @Override
+  public List<StaffInterface> getEverAssignedStaff(PatientInterface patient) {
+    SortedSet<StaffInterface> staffSet = everAssignedStaff.get(patient.getId());
+    return staffSet == null ? new ArrayList<>() : new ArrayList<>(staffSet);
   }
   
   @Override
   public void readIntoModel(Reader source) throws IllegalArgumentException, IOException {
-    try (BufferedReader reader = new BufferedReader(source)) {
+    readIntoModel(new SpecTokenizer(source));
+  }
+  
+  @Override
+  public void readIntoModel(Path file) throws IllegalArgumentException, IOException {
+    readIntoModel(new MappedSpecTokenizer(file));
+  }
+  
+  /**
+   * Helper method to read the clinic specifications from a tokenizer into model.
+   * 
+   * @param tokenizer the tokenizer of the input specification, closed when done
+   * @throws IllegalArgumentException if the specifications are invalid
+   * @throws IOException if any IO issues with the tokenizer
+   */
+  private void readIntoModel(SpecTokenizer tokenizer) 
+      throws IllegalArgumentException, IOException {
+    try (SpecTokenizer reader = tokenizer) {
   
       // Read the clinic name
-      this.clinicName = reader.readLine().trim();
+      reader.requireLine();
+      this.clinicName = reader.getLine().trim();
   
       // Read rooms
-      int numRooms = Integer.parseInt(reader.readLine());
+      reader.requireLine();
+      int numRooms = reader.nextInt();
       readRooms(reader, numRooms);
   
       // Read staff
-      int numStaff = Integer.parseInt(reader.readLine());
+      reader.requireLine();
+      int numStaff = reader.nextInt();
       readStaff(reader, numStaff);
 
       // Read patients
-      int numPatients = Integer.parseInt(reader.readLine());
+      reader.requireLine();
+      int numPatients = reader.nextInt();
       readPatients(reader, numPatients);
       
       // Read visit records (optional)
-      String tryGetVisits = reader.readLine();
-      if (!(tryGetVisits == null || tryGetVisits.isBlank())) {
-        int numVisits = Integer.parseInt(tryGetVisits);
+      if (reader.nextLine() && reader.hasMoreTokens()) {
+        int numVisits = reader.nextInt();
         readVisits(reader, numVisits);
       }
       
     } catch (IOException e) {
       throw new IOException(e.getMessage());
+    } finally {
+      modelChanged(); // Some entities may have been read even if the source is invalid
     }
   }
   
   /**
-   * Helper method to read the rooms into model.
+   * Helper method to read the rooms into model. The room lines are read first, so the
+   * overlaps of the new rooms with the existing rooms and with each other are found by a
+   * single {@link RoomOverlapChecker} sweep, then the rooms are validated and added in
+   * order, failing on the same line and with the same message as checking each room
+   * against the rooms before it.
    * 
-   * @param reader the reader for input specification
+   * @param reader the tokenizer of the input specification
    * @param numRooms the number of rooms
    * @throws IOException if any IO issues with reader
    */
-  private void readRooms(BufferedReader reader, int numRooms) throws IOException {
+  private void readRooms(SpecTokenizer reader, int numRooms) throws IOException {
+    RoomOverlapChecker overlapChecker = new RoomOverlapChecker();
+    for (RoomInterface existingRoom : rooms) {
+      int[] existingRoomPos = existingRoom.getPosition();
+      overlapChecker.add(
+          existingRoomPos[0], existingRoomPos[1], existingRoomPos[2], existingRoomPos[3]);
+    }
+    int numExisting = overlapChecker.size();
+    
+    List<String> roomTypes = new ArrayList<>();
+    List<String> roomNames = new ArrayList<>();
+    IllegalArgumentException lineError = null; // the lines after it are not read
     for (int i = 0; i < numRooms; i++) {
-      String line = reader.readLine();
-      String[] roomData = line.split("[\\s,]+");
-      
-      int left = Integer.parseInt(roomData[0]);
-      int bottom = Integer.parseInt(roomData[1]);
-      int right = Integer.parseInt(roomData[2]);
-      int top = Integer.parseInt(roomData[3]);
-      String roomType = roomData[4].toUpperCase();
-
-      // Need combine the rest in case the input name consists of multiple words
-      StringBuilder roomNameBuilder = new StringBuilder();
-      for (int j = 5; j < roomData.length; j++) {
-        roomNameBuilder.append(roomData[j]).append(" ");
+      try {
+        reader.requireLine();
+        int left = reader.nextInt();
+        int bottom = reader.nextInt();
+        int right = reader.nextInt();
+        int top = reader.nextInt();
+        roomTypes.add(reader.nextToken().toUpperCase());
+        // Need combine the rest in case the input name consists of multiple words
+        roomNames.add(reader.rest());
+        overlapChecker.add(left, bottom, right, top);
+      } catch (IllegalArgumentException e) {
+        lineError = e;
+        break;
       }
-      String roomName = roomNameBuilder.toString().trim();
-
+    }
+    int firstOverlap = overlapChecker.firstOverlap() - numExisting;
+    
+    for (int i = 0; i < roomNames.size(); i++) {
+      String roomType = roomTypes.get(i);
+      
       // The first room must be WAITING type (primary waiting room)
       if (i == 0 && !"WAITING".equals(roomType)) {
         throw new IllegalArgumentException("The first room must be waiting room.");
       }
       
       //The rooms cannot overlap each other
-      for (RoomInterface existingRoom : rooms) {
-        int[] existingRoomPos = existingRoom.getPosition();
-        if (isIntersect(left, bottom, right, top, 
-            existingRoomPos[0], existingRoomPos[1], existingRoomPos[2], existingRoomPos[3])) {
-          throw new IllegalArgumentException("Overlap with existing rooms.");
-        }
+      if (i == firstOverlap) {
+        throw new IllegalArgumentException("Overlap with existing rooms.");
       }
       
-      RoomInterface room = new Room(left, bottom, right, top, roomType, roomName);
-      rooms.add(room);
+      int[] position = overlapChecker.get(numExisting + i);
+      addRoom(new Room(
+          position[0], position[1], position[2], position[3], roomType, roomNames.get(i)));
+    }
+    if (lineError != null) {
+      throw lineError;
     }
   }
   
+  /**
+   * Helper method to add a validated room into the model.
+   * 
+   * @param room the room to be added
+   */
+  private void addRoom(RoomInterface room) {
+    rooms.add(room);
+    roomsSnapshot = null;
+    seatingChartCache = null;
+    putById(roomsById, room.getId(), room);
+    occupancyHistory.addRoom(room.getId(), clock.millis());
+  }
+  
   /**
    * Helper method to read the staff members into model.
    * 
-   * @param reader the reader for input specification
+   * @param reader the tokenizer of the input specification
    * @param numStaff the number of staff members
    * @throws IOException if any IO issues with reader
    */
-  private void readStaff(BufferedReader reader, int numStaff) throws IOException {
+  private void readStaff(SpecTokenizer reader, int numStaff) throws IOException {
     for (int i = 0; i < numStaff; i++) {
-      String line = reader.readLine();
-      String[] staffData = line.split("[\\s,]+");
+      reader.requireLine();
       
-      String jobTitle = staffData[0].toUpperCase();
-      String firstName = staffData[1];
-      String lastName = staffData[2];
-      String educationLevel = staffData[3].toUpperCase();
-      String npiCpr = staffData[4].toUpperCase();
+      String jobTitle = reader.nextToken().toUpperCase();
+      String firstName = reader.nextToken();
+      String lastName = reader.nextToken();
+      String educationLevel = reader.nextToken().toUpperCase();
+      String npiCpr = reader.nextToken().toUpperCase();
       
       // Judge if this is a clinical or non-clinical staff member based on NPI/CPR
       ArrayList<String> cprLevelNames = new ArrayList<>();
       for (CprLevel c : CprLevel.values()) {
         cprLevelNames.add(c.name());
       }
+      StaffInterface staff;
       if (cprLevelNames.contains(npiCpr)) {
-        staffs.add(new NonClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr));
+        staff = new NonClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr);
       } else {
-        staffs.add(new ClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr));
+        staff = new ClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr);
       }
+      staffs.add(staff);
+      staffSnapshot = null;
+      putById(staffById, staff.getId(), staff);
+      workload.update(staff);
     }
   }
   
   /**
    * Helper method to read the patients into model.
    * 
-   * @param reader the reader for input specification
+   * @param reader the tokenizer of the input specification
    * @param numPatients the number of patients
    * @throws IOException if any IO issues with reader
    */
-  private void readPatients(BufferedReader reader, int numPatients) throws IOException {
+  private void readPatients(SpecTokenizer reader, int numPatients) throws IOException {
     for (int i = 0; i < numPatients; i++) {
-      String line = reader.readLine();
-      String[] patientData = line.split("[\\s,]+");
+      reader.requireLine();
       
-      int roomNumber = Integer.parseInt(patientData[0]);
-      String firstName = patientData[1];
-      String lastName = patientData[2];
-      String dateOfBirth = patientData[3];
-      patients.add(new Patient(firstName, lastName, dateOfBirth));
+      int roomNumber = reader.nextInt();
+      String firstName = reader.nextToken();
+      String lastName = reader.nextToken();
+      String dateOfBirth = reader.nextToken();
+      PatientInterface patient = new Patient(firstName, lastName, dateOfBirth);
+      patients.add(patient);
+      patientsSnapshot = null;
+      patientKeys.putIfAbsent(patientKey(patient), patient);
+      nameIndex.add(patient);
+      putById(patientsById, patient.getId(), patient);
 
       // Assign patient to room
       if (roomNumber > 0) {
@@ -206,45 +403,441 @@ public class Clinic implements ClinicInterface {
   }
   
   /**
-   * Helper method to read the visit records into model.
+   * Helper method to read the visit records into model. The lines are read in batches, 
+   * each batch is parsed in parallel, and then merged into the patients in line order, 
+   * so the model is the same as if read line by line, up to the first invalid line.
    * 
-   * @param reader the reader for input specification
+   * @param reader the tokenizer of the input specification
    * @param numVisits the number of visit records
    * @throws IOException if any IO issues with reader
    */
-  private void readVisits(BufferedReader reader, int numVisits) throws IOException {
-    for (int i = 0; i < numVisits; i++) {
-      String line = reader.readLine();
-      String[] visitData = line.split("[\\s,]+");
-      
-      int patientId = Integer.parseInt(visitData[0]);
-      String visitDateTime = visitData[1] + " " + visitData[2];
-      Double temperature = Double.parseDouble(visitData[3]);
-      String complaint = Arrays.stream(visitData, 4, visitData.length)
-          .collect(Collectors.joining(" "));
-
-      PatientInterface patient = patients.get(patientId - 1);
-      patient.addVisitRecord(visitDateTime, complaint, temperature);
+  private void readVisits(SpecTokenizer reader, int numVisits) throws IOException {
+    VisitBlock block = new VisitBlock(Math.max(1, Math.min(numVisits, VISIT_BATCH_LINES)));
+    for (int done = 0; done < numVisits; done += block.size()) {
+      block.read(reader, Math.min(numVisits - done, VISIT_BATCH_LINES));
+      block.parse(ForkJoinPool.commonPool());
+      for (int i = 0; i < block.size(); i++) {
+        int patientId = block.getPatientId(i);
+        if (patientId < 1 || patientId > patients.size()) {
+          throw block.error(i, "No patient with ID " + patientId + ".");
+        }
+        PatientInterface patient = patients.get(patientId - 1);
+        VisitRecordInterface record;
+        try {
+          record = patient.addVisitRecord(block.getRegistrationDateTime(i), 
+              block.getChiefComplaint(i), block.getBodyTemperature(i));
+        } catch (IllegalArgumentException e) {
+          throw block.error(i, e.getMessage());
+        }
+        if (record != null) {
+          addVisit(patient, record);
+        }
+      }
+    }
+  }
+  
+  @Override
+  public void saveSnapshot(Path file) throws IOException {
+    ClinicSnapshot.write(this, file);
+  }
+  
+  @Override
+  public void loadSnapshot(Path file) throws IllegalArgumentException, IOException {
+    ClinicSnapshot snapshot = ClinicSnapshot.read(file); // checked before the model changes
+    clearModel();
+    try {
+      snapshot.decode();
+      clinicName = snapshot.getName();
+      for (RoomInterface room : snapshot.getRooms()) {
+        addRoom(room);
+      }
+      for (PatientInterface patient : snapshot.getPatients()) {
+        addPatient(patient);
+      }
+      addVisits(snapshot.getPatients());
+      for (StaffInterface staff : snapshot.getStaff()) {
+        registerClinicalStaff(staff);
+      }
+    } catch (RuntimeException e) {
+      clearModel(); // leave an empty model rather than a partly loaded one
+      throw e;
+    } finally {
+      modelChanged();
     }
   }
   
   @Override
   public void registerPatient(PatientInterface patient) {
-    for (PatientInterface p : patients) {
-      if (Objects.equals(p.getFirstName(), patient.getFirstName())
-          && Objects.equals(p.getLastName(), patient.getLastName())
-          && Objects.equals(p.getDateOfBirth(), patient.getDateOfBirth())) {
-        throw new IllegalStateException("This patient is already registered.");
+    if (patientKeys.containsKey(patientKey(patient))) {
+      throw new IllegalStateException("This patient is already registered.");
+    }
+    addPatient(patient);
+    addVisits(List.of(patient));
+    modelChanged();
+  }
+  
+  @Override
+  public void registerPatients(Collection<PatientInterface> newPatients) {
+    // Check the whole batch first, so that either all or none of the patients are registered
+    List<String> conflicts = new ArrayList<>();
+    Set<List<Object>> batchKeys = new HashSet<>();
+    for (PatientInterface p : newPatients) {
+      List<Object> key = patientKey(p);
+      if (patientKeys.containsKey(key) || !batchKeys.add(key)) {
+        conflicts.add(String.format("%s %s (%s)", 
+            p.getFirstName(), p.getLastName(), p.getDateOfBirth()));
       }
     }
+    if (!conflicts.isEmpty()) {
+      throw new IllegalStateException(
+          "These patients are already registered: " + String.join(", ", conflicts));
+    }
     
+    for (PatientInterface p : newPatients) {
+      addPatient(p);
+    }
+    addVisits(newPatients);
+    modelChanged();
+  }
+  
+  /**
+   * Helper method to add a patient who is known not to be a duplicate into the model, 
+   * without the visit records the patient may have already, which are added by the caller 
+   * through {@link #addVisits}.
+   * 
+   * @param patient the patient to be added
+   */
+  private void addPatient(PatientInterface patient) {
     patients.add(patient);
+    patientsSnapshot = null;
+    patientKeys.put(patientKey(patient), patient);
+    nameIndex.add(patient);
+    putById(patientsById, patient.getId(), patient);
     // patient.assignToRoom(getRooms().get(0)); // start in the primary waiting room
+    if (patient.getAssignedRoom() != null) { // may be pre-assigned by the caller
+      patient.assignToRoom(canonicalRoom(patient.getAssignedRoom()));
+      addOccupant(patient, patient.getAssignedRoom());
+    }
+  }
+  
+  @Override
+  public VisitRecordInterface addVisitRecord(PatientInterface patient, 
+      String registrationDateTime, String chiefComplaint, double bodyTemperature) {
+    if (findPatientById(patient.getId()) == null) {
+      throw new IllegalStateException("This patient is not registered.");
+    }
+    VisitRecordInterface record = 
+        patient.addVisitRecord(registrationDateTime, chiefComplaint, bodyTemperature);
+    if (record != null) {
+      addVisit(patient, record);
+      modelChanged();
+    }
+    return record;
+  }
+  
+  @Override
+  public List<PatientInterface> getPatientsVisitedBetween(LocalDateTime from, LocalDateTime to) {
+    VisitStore store = VisitStore.getInstance();
+    Set<Integer> visited = new LinkedHashSet<>();
+    if (from.isBefore(to)) {
+      for (int[] rows : visitIndex.subMap(from, true, to, false).values()) {
+        for (int row : rows) {
+          visited.add(store.getPatientId(row));
+        }
+      }
+    }
+    return toPatients(visited);
+  }
+  
+  @Override
+  public List<PatientInterface> getDormantPatients(LocalDate today) {
+    LocalDateTime cutoff = today.minusDays(365).atStartOfDay();
+    List<PatientInterface> dormant = new ArrayList<>();
+    for (SortedSet<PatientInterface> set : lastVisitIndex.headMap(cutoff, false).values()) {
+      dormant.addAll(set);
+    }
+    return dormant;
+  }
+  
+  @Override
+  public List<PatientInterface> listFrequentPatients(int threshold, int windowDays, 
+      LocalDate today) throws IllegalArgumentException {
+    if (threshold < 1 || windowDays < 1) {
+      throw new IllegalArgumentException("Threshold and window must be positive.");
+    }
+    frequentCounter.moveTo(today.minusDays(windowDays).atStartOfDay(), 
+        today.plusDays(1).atStartOfDay());
+    return toPatients(frequentCounter.atLeast(threshold));
+  }
+  
+  @Override
+  public Map<String, Long> getTopComplaints(LocalDateTime from, LocalDateTime to, int k) 
+      throws IllegalArgumentException {
+    if (k < 1) {
+      throw new IllegalArgumentException("The number of top complaints must be positive.");
+    }
+    VisitStore store = VisitStore.getInstance();
+    int[] counts = new int[store.dictionarySize()]; // indexed by complaint code
+    if (from.isBefore(to)) {
+      for (int[] rows : visitIndex.subMap(from, true, to, false).values()) {
+        for (int row : rows) {
+          counts[store.getComplaintCode(row)]++;
+        }
+      }
+    }
+    // Order ties by complaint rather than by the code, which depends on the loading order
+    List<Map.Entry<String, Long>> entries = new ArrayList<>();
+    for (int code = 0; code < counts.length; code++) {
+      if (counts[code] > 0) {
+        entries.add(Map.entry(store.getComplaint(code), (long) counts[code]));
+      }
+    }
+    entries.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+        .thenComparing(Map.Entry.comparingByKey()));
+    Map<String, Long> top = new LinkedHashMap<>();
+    for (Map.Entry<String, Long> e : entries.subList(0, Math.min(k, entries.size()))) {
+      top.put(e.getKey(), e.getValue());
+    }
+    return top;
+  }
+  
+  @Override
+  public VisitStatistics getVisitStatistics(LocalDateTime from, LocalDateTime to) {
+    VisitStore.Columns columns = VisitStore.getInstance().columns();
+    int[] rows = new int[0];
+    if (from.isBefore(to)) {
+      Collection<int[]> lists = visitIndex.subMap(from, true, to, false).values();
+      rows = new int[lists.stream().mapToInt(list -> list.length).sum()];
+      int n = 0;
+      for (int[] list : lists) {
+        System.arraycopy(list, 0, rows, n, list.length);
+        n += list.length;
+      }
+    }
+    return VisitStatistics.compute(columns, rows, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Helper method to look up the patients of a collection of patient IDs.
+   * 
+   * @param ids the patient IDs
+   * @return the list of the patients in the same order
+   */
+  private List<PatientInterface> toPatients(Collection<Integer> ids) {
+    List<PatientInterface> result = new ArrayList<>(ids.size());
+    for (int id : ids) {
+      result.add(findPatientById(id));
+    }
+    return result;
+  }
+  
+  /**
+   * Helper method to add a visit record of a patient to the time-ordered visit index.
+   * 
+   * @param patient the patient who visited
+   * @param record the visit record of the patient
+   */
+  private void addVisit(PatientInterface patient, VisitRecordInterface record) {
+    LocalDateTime time = record.getRegistrationDateTime();
+    VisitStore store = VisitStore.getInstance();
+    int row = store.rowOf(record);
+    if (row < 0) { // not a row of this store, such as of an older store, store a copy
+      row = store.add(patient.getId(), time, record.getChiefComplaint(), 
+          record.getBodyTemperature());
+    }
+    int[] rows = visitIndex.get(time);
+    if (rows == null) {
+      rows = new int[] {row};
+    } else {
+      rows = Arrays.copyOf(rows, rows.length + 1);
+      rows[rows.length - 1] = row;
+    }
+    visitIndex.put(time, rows);
+    frequentCounter.add(time, patient.getId());
+    long hash = patientHash(patient);
+    LocalDate date = time.toLocalDate();
+    dailyPatients.computeIfAbsent(date, d -> new HyperLogLog()).add(hash);
+    monthlyPatients.computeIfAbsent(YearMonth.from(date), m -> new HyperLogLog()).add(hash);
+    yearlyPatients.computeIfAbsent(Year.from(date), y -> new HyperLogLog()).add(hash);
+    
+    // Move the patient in the last visit index only if this visit is the latest
+    LocalDateTime last = lastVisits.get(patient.getId());
+    if (last != null && !time.isAfter(last)) {
+      return;
+    }
+    if (last != null) {
+      SortedSet<PatientInterface> set = lastVisitIndex.get(last);
+      set.remove(patient);
+      if (set.isEmpty()) {
+        lastVisitIndex.remove(last);
+      }
+    }
+    lastVisits.put(patient.getId(), time);
+    lastVisitIndex.computeIfAbsent(time, t -> new TreeSet<>()).add(patient);
+    roomInfoChanged(patient.getAssignedRoom());
+  }
+  
+  /**
+   * Helper method to add the visit records the patients already have to the visit indexes, 
+   * with the same result as {@link #addVisit} for each record of each patient in turn. 
+   * The records are added in order of time instead, grouped by date and time, so the sorted 
+   * indexes are filled from one end rather than at random places, and the patient hash for 
+   * the daily sketches and the last visit are updated once per patient.
+   * 
+   * @param newPatients the patients whose visit records are added
+   */
+  private void addVisits(Collection<PatientInterface> newPatients) {
+    VisitStore store = VisitStore.getInstance();
+    List<PatientInterface> visitors = new ArrayList<>();
+    List<VisitRecordInterface> records = new ArrayList<>();
+    List<Integer> visitorOf = new ArrayList<>(); // the index in visitors of each record
+    for (PatientInterface p : newPatients) {
+      SortedSet<VisitRecordInterface> patientRecords = p.getVisitRecords();
+      if (!patientRecords.isEmpty()) {
+        for (VisitRecordInterface record : patientRecords) {
+          records.add(record);
+          visitorOf.add(visitors.size());
+        }
+        visitors.add(p);
+      }
+    }
+    int n = records.size();
+    int[] rows = new int[n];
+    long[] minutes = new long[n];
+    long minMinute = Long.MAX_VALUE;
+    long maxMinute = Long.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+      VisitRecordInterface record = records.get(i);
+      rows[i] = store.rowOf(record);
+      if (rows[i] < 0) { // not a row of this store, such as of an older store, store a copy
+        rows[i] = store.add(visitors.get(visitorOf.get(i)).getId(), 
+            record.getRegistrationDateTime(), record.getChiefComplaint(), 
+            record.getBodyTemperature());
+      }
+      minutes[i] = store.getMinute(rows[i]);
+      minMinute = Math.min(minMinute, minutes[i]);
+      maxMinute = Math.max(maxMinute, minutes[i]);
+    }
+    if (n > 0 && maxMinute - minMinute > Integer.MAX_VALUE) { // cannot be sorted as below
+      for (int i = 0; i < n; i++) {
+        addVisit(visitors.get(visitorOf.get(i)), store.get(rows[i]));
+      }
+      return;
+    }
+    
+    // Sort by time and then by the order of addVisit(), packed in a long
+    long[] order = new long[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = (minutes[i] - minMinute) << 32 | i;
+    }
+    Arrays.sort(order);
+    
+    long[] hashes = new long[visitors.size()];
+    for (int v = 0; v < hashes.length; v++) {
+      hashes[v] = patientHash(visitors.get(v));
+    }
+    LocalDateTime[] lastTimes = new LocalDateTime[visitors.size()];
+    boolean merge = !visitIndex.isEmpty();
+    LocalDate date = null;
+    HyperLogLog day = null;
+    HyperLogLog month = null;
+    HyperLogLog year = null;
+    for (int start = 0; start < n; ) {
+      int end = start + 1;
+      while (end < n && order[end] >>> 32 == order[start] >>> 32) {
+        end++;
+      }
+      LocalDateTime time = VisitStore.fromMinute(minMinute + (order[start] >>> 32));
+      int[] timeRows = new int[end - start];
+      for (int k = start; k < end; k++) {
+        timeRows[k - start] = rows[(int) order[k]];
+      }
+      int[] existing = merge ? visitIndex.get(time) : null;
+      if (existing != null) {
+        int[] merged = Arrays.copyOf(existing, existing.length + timeRows.length);
+        System.arraycopy(timeRows, 0, merged, existing.length, timeRows.length);
+        timeRows = merged;
+      }
+      visitIndex.put(time, timeRows);
+      if (!time.toLocalDate().equals(date)) {
+        date = time.toLocalDate();
+        day = dailyPatients.computeIfAbsent(date, d -> new HyperLogLog());
+        month = monthlyPatients.computeIfAbsent(YearMonth.from(date), m -> new HyperLogLog());
+        year = yearlyPatients.computeIfAbsent(Year.from(date), y -> new HyperLogLog());
+      }
+      for (int k = start; k < end; k++) {
+        int v = visitorOf.get((int) order[k]);
+        frequentCounter.add(time, visitors.get(v).getId());
+        day.add(hashes[v]);
+        month.add(hashes[v]);
+        year.add(hashes[v]);
+        lastTimes[v] = time;
+      }
+      start = end;
+    }
+    
+    // Move each patient in the last visit index once, if a new visit is the latest
+    for (int v = 0; v < lastTimes.length; v++) {
+      PatientInterface patient = visitors.get(v);
+      LocalDateTime last = lastVisits.get(patient.getId());
+      if (last != null && !lastTimes[v].isAfter(last)) {
+        continue;
+      }
+      if (last != null) {
+        SortedSet<PatientInterface> set = lastVisitIndex.get(last);
+        set.remove(patient);
+        if (set.isEmpty()) {
+          lastVisitIndex.remove(last);
+        }
+      }
+      lastVisits.put(patient.getId(), lastTimes[v]);
+      lastVisitIndex.computeIfAbsent(lastTimes[v], t -> new TreeSet<>()).add(patient);
+      roomInfoChanged(patient.getAssignedRoom());
+    }
+  }
+  
+  /**
+   * Helper method to build the key identifying a duplicate patient registration, 
+   * which is the combination of last name, first name, and date of birth.
+   * 
+   * @param patient the patient to build the key for
+   * @return the composite key of the patient
+   */
+  private static List<Object> patientKey(PatientInterface patient) {
+    return Arrays.asList(patient.getLastName(), patient.getFirstName(), 
+        patient.getDateOfBirth());
+  }
+  
+  /**
+   * Helper method to hash the same fields as {@link #patientKey(PatientInterface)} for the 
+   * HyperLogLog sketches, without building the key. The cached string hash codes are 
+   * combined and then mixed, so the hash is the same in any clinic.
+   * 
+   * @param patient the patient to hash
+   * @return the 64-bit hash of the patient
+   */
+  private static long patientHash(PatientInterface patient) {
+    long h = patient.getLastName().hashCode();
+    h = h * 0x9E3779B97F4A7C15L + patient.getFirstName().hashCode();
+    h = h * 0x9E3779B97F4A7C15L + patient.getDateOfBirth().toEpochDay();
+    return HyperLogLog.hash(h);
   }
 
   @Override
   public void registerClinicalStaff(StaffInterface staff) {
     staffs.add(staff);
+    staffSnapshot = null;
+    putById(staffById, staff.getId(), staff);
+    // Carry over any assignments the staff member already has
+    for (PatientInterface p : staff.getAssignedPatients()) {
+      addStaffAssignment(assignedStaff, p, staff);
+      roomInfoChanged(p.getAssignedRoom());
+    }
+    for (PatientInterface p : staff.getEverAssigned()) {
+      addStaffAssignment(everAssignedStaff, p, staff);
+    }
+    workload.update(staff);
+    modelChanged();
   }
 
   @Override
@@ -256,11 +849,11 @@ public class Clinic implements ClinicInterface {
     if (patient.getAssignedRoom() == null) {
       throw new IllegalStateException("The patient was already sent home.");
     }
+    removeOccupant(patient, patient.getAssignedRoom());
     patient.assignToRoom(null);
-    for (StaffInterface s : getStaff()) {
-      if (s.getAssignedPatients().contains(patient)) {
-        s.unassignFromPatient(patient);
-      }
+    modelChanged();
+    for (StaffInterface s : getAssignedStaff(patient)) {
+      unassignStaffFromPatient(s, patient);
     }
   }
 
@@ -268,6 +861,100 @@ public class Clinic implements ClinicInterface {
   public void deactivateClinicalStaff(StaffInterface staff) {
     // staff.assignToPatient(null); // (x)clear previous assignment -> keep records
     staff.setActive(false);
+    workload.update(staff);
+    modelChanged();
+  }
+
+  @Override
+  public void changeStaffJobTitle(StaffInterface staff, String jobTitle) {
+    staff.setJobTitle(jobTitle);
+    workload.update(staff);
+    modelChanged();
+  }
+
+  @Override
+  public List<OccupancyHistory.Sample> getOccupancyHistory(RoomInterface room, 
+      LocalDateTime from, LocalDateTime to) {
+    ZoneId zone = clock.getZone();
+    return occupancyHistory.query(room.getId(), from.atZone(zone).toInstant().toEpochMilli(), 
+        to.atZone(zone).toInstant().toEpochMilli(), zone);
+  }
+  
+  /**
+   * This is just for JUnit testing purpose to control the time of the occupancy samples, 
+   * therefore it is not included in the contract defined by ClinicInterface. 
+   * The clock is reset to the system clock by clearState().
+   * 
+   * @param clock the clock giving the time of the occupancy samples
+   */
+  public void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public HyperLogLog getUniquePatientSketch(LocalDate from, LocalDate to) {
+    HyperLogLog sketch = new HyperLogLog();
+    if (!from.isBefore(to) || dailyPatients.subMap(from, true, to, false).isEmpty()) {
+      return sketch;
+    }
+    // Merge the fewest sketches covering the days with visits: whole years, whole months, 
+    // and then single days
+    LocalDate day = dailyPatients.ceilingKey(from);
+    LocalDate end = dailyPatients.lowerKey(to).plusDays(1);
+    while (day.isBefore(end)) {
+      HyperLogLog covering;
+      if (day.getDayOfYear() == 1 && !day.plusYears(1).isAfter(end)) {
+        covering = yearlyPatients.get(Year.from(day));
+        day = day.plusYears(1);
+      } else if (day.getDayOfMonth() == 1 && !day.plusMonths(1).isAfter(end)) {
+        covering = monthlyPatients.get(YearMonth.from(day));
+        day = day.plusMonths(1);
+      } else {
+        covering = dailyPatients.get(day);
+        day = day.plusDays(1);
+      }
+      if (covering != null) {
+        sketch.merge(covering);
+      }
+    }
+    return sketch;
+  }
+  
+  @Override
+  public long countUniquePatients(LocalDate from, LocalDate to, boolean exact) {
+    if (!exact) {
+      return getUniquePatientSketch(from, to).estimate();
+    }
+    VisitStore store = VisitStore.getInstance();
+    Set<Integer> ids = new HashSet<>();
+    if (from.isBefore(to)) {
+      for (int[] rows : visitIndex.subMap(from.atStartOfDay(), true, 
+          to.atStartOfDay(), false).values()) {
+        for (int row : rows) {
+          ids.add(store.getPatientId(row));
+        }
+      }
+    }
+    Set<List<Object>> keys = new HashSet<>(); // identified like the sketches
+    for (PatientInterface patient : toPatients(ids)) {
+      keys.add(patientKey(patient));
+    }
+    return keys.size();
+  }
+
+  @Override
+  public CohortQuery queryPatients() {
+    return new CohortQuery(this, visitIndex);
+  }
+
+  @Override
+  public StaffInterface leastLoadedClinician(String jobTitle) {
+    return workload.leastLoaded(jobTitle);
+  }
+
+  @Override
+  public List<StaffInterface> listClinicalStaffByWorkload() {
+    return workload.listByWorkload();
   }
 
   @Override
@@ -276,7 +963,11 @@ public class Clinic implements ClinicInterface {
     if (!isRoomAvailable(room)) {
       throw new IllegalStateException("Room is already occupied.");
     }
-    patient.assignToRoom(room);
+    RoomInterface canonical = canonicalRoom(room);
+    removeOccupant(patient, patient.getAssignedRoom());
+    patient.assignToRoom(canonical);
+    addOccupant(patient, canonical);
+    modelChanged();
   }
 
   @Override
@@ -285,11 +976,26 @@ public class Clinic implements ClinicInterface {
       throw new IllegalStateException("Can't assign non-clinical staff to patient.");
     }
     staff.assignToPatient(patient);
+    addStaffAssignment(assignedStaff, patient, staff);
+    addStaffAssignment(everAssignedStaff, patient, staff);
+    workload.update(staff);
+    roomInfoChanged(patient.getAssignedRoom());
+    modelChanged();
   }
   
   @Override
   public void unassignStaffFromPatient(StaffInterface staff, PatientInterface patient) {
     staff.unassignFromPatient(patient);
+    SortedSet<StaffInterface> staffSet = assignedStaff.get(patient.getId());
+    if (staffSet != null) {
+      staffSet.remove(staff);
+      if (staffSet.isEmpty()) {
+        assignedStaff.remove(patient.getId());
+      }
+    }
+    workload.update(staff);
+    roomInfoChanged(patient.getAssignedRoom());
+    modelChanged();
   }
 
   /**
@@ -307,12 +1013,24 @@ public class Clinic implements ClinicInterface {
    */
   @Override
   public String roomInfo(RoomInterface room) {
+    if (findRoomById(room.getId()) != canonicalRoom(room)) { // not in clinic, nothing to cache
+      return renderRoomInfo(room);
+    }
+    return roomInfoCache.computeIfAbsent(room.getId(), id -> renderRoomInfo(room));
+  }
+
+  /**
+   * Helper method to render the text of roomInfo() for a room.
+   * 
+   * @param room the room
+   * @return the room information
+   */
+  private String renderRoomInfo(RoomInterface room) {
     StringBuilder info = new StringBuilder();
     // Basic room info
     info.append(String.format("Room Number: %d | %s\n", room.getId(), room.toString()));
     // Loop for patients and assigned clinical staff
-    List<PatientInterface> patientsInRoom = patients.stream()
-        .filter(p -> room.equals(p.getAssignedRoom())).collect(Collectors.toList());
+    List<PatientInterface> patientsInRoom = getPatientsInRoom(room);
     for (PatientInterface p : patientsInRoom) {
       // Patient's name
       info.append(String.format("  * Patient: %s %s, assigned clinical staff: ", 
@@ -352,23 +1070,38 @@ public class Clinic implements ClinicInterface {
    */
   @Override
   public String seatingChart() {
-    StringBuilder info = new StringBuilder();
-    for (RoomInterface r : rooms) {
-      // Basic room info
-      info.append(String.format("Room: %d | %s\n  * Patients: ", r.getId(), r.toString()));
-      // List patients in room
-      List<PatientInterface> patientsInRoom = getPatientsInRoom(r);
-      if (patientsInRoom.isEmpty()) {
-        info.append("none\n");
+    if (seatingChartCache == null) {
+      StringBuilder info = new StringBuilder();
+      for (RoomInterface r : rooms) {
+        info.append(seatingLineCache.computeIfAbsent(r.getId(), id -> renderSeatingLine(r)));
       }
-      for (int i = 0; i < patientsInRoom.size(); i++) {
-        info.append(String.format("%s %s", 
-            patientsInRoom.get(i).getFirstName(), patientsInRoom.get(i).getLastName()));
-        if (i < patientsInRoom.size() - 1) {
-          info.append(", ");  // more patients to go
-        } else {
-          info.append("\n");  // last one, end of line
-        }
+      seatingChartCache = info.toString();
+    }
+    return seatingChartCache;
+  }
+
+  /**
+   * Helper method to render the lines of seatingChart() for a room.
+   * 
+   * @param r the room
+   * @return the room and the patients in it
+   */
+  private String renderSeatingLine(RoomInterface r) {
+    StringBuilder info = new StringBuilder();
+    // Basic room info
+    info.append(String.format("Room: %d | %s\n  * Patients: ", r.getId(), r.toString()));
+    // List patients in room
+    List<PatientInterface> patientsInRoom = getPatientsInRoom(r);
+    if (patientsInRoom.isEmpty()) {
+      info.append("none\n");
+    }
+    for (int i = 0; i < patientsInRoom.size(); i++) {
+      info.append(String.format("%s %s", 
+          patientsInRoom.get(i).getFirstName(), patientsInRoom.get(i).getLastName()));
+      if (i < patientsInRoom.size() - 1) {
+        info.append(", ");  // more patients to go
+      } else {
+        info.append("\n");  // last one, end of line
       }
     }
     return info.toString();
@@ -409,70 +1142,157 @@ public class Clinic implements ClinicInterface {
     return Objects.hash(clinicName, rooms, staffs, patients);
   }
 
+  @Override
+  public List<PatientInterface> getPatientsInRoom(RoomInterface room) {
+    SortedSet<PatientInterface> occupants = roomOccupants.get(room.getId());
+    if (occupants == null) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(occupants);
+  }
+
+  @Override
+  public List<PatientInterface> searchPatients(String query, int limit) {
+    return nameIndex.search(query, limit);
+  }
+
   /**
-   * This is a helper method to get the patients in the specified room.
-   * 
-   * @param room The specified room.
-   * @return A list of the patients in that room.
+   * Helper method to record that the model has been changed through this clinic.
    */
-  private List<PatientInterface> getPatientsInRoom(RoomInterface room) {
-    return patients.stream()
-        .filter(p -> room.equals(p.getAssignedRoom())).collect(Collectors.toList());
+  private void modelChanged() {
+    version++;
   }
 
   /**
-   * This is a helper method to get the staff assigned to a specified patient.
-   * @param patient The specified patient.
-   * @return A list of the staff that is assigned to this patient.
+   * Helper method to add a patient to the occupancy index of the specified room.
+   * Nothing is recorded when the room is null (not in clinic).
+   * 
+   * @param patient the patient entering the room
+   * @param room the room the patient is assigned to, or null
    */
-  private List<StaffInterface> getAssignedStaff(PatientInterface patient) {
-    return staffs.stream()
-        .filter(s -> s.getAssignedPatients().contains(patient)) 
-        .collect(Collectors.toList()); 
+  private void addOccupant(PatientInterface patient, RoomInterface room) {
+    if (room != null) {
+      SortedSet<PatientInterface> occupants = 
+          roomOccupants.computeIfAbsent(room.getId(), id -> new TreeSet<>());
+      occupants.add(patient);
+      occupancyHistory.record(room.getId(), clock.millis(), occupants.size());
+      occupantsChanged(room);
+    }
   }
 
   /**
-   * Helper method to check if the specified room is available for a patient to be assigned to.
-   * A waiting room is always available since it can accommodate multiple patients.
-   * A non-waiting room is available only when it is not currently assigned to another patient.
+   * Helper method to remove a patient from the occupancy index of the specified room.
+   * Nothing is changed when the room is null (not in clinic).
    * 
-   * @param room the specified room
-   * @return true if the room is available, false if not
+   * @param patient the patient leaving the room
+   * @param room the room the patient was assigned to, or null
    */
-  private boolean isRoomAvailable(RoomInterface room) {
-    if (!room.getRoomType().equals("WAITING")) { // A waiting room can host multiple patients
-      for (PatientInterface patient : patients) {
-        if (room.equals(patient.getAssignedRoom())) {
-          return false;  // A non-waiting room can only accommodate a single patient
+  private void removeOccupant(PatientInterface patient, RoomInterface room) {
+    if (room != null) {
+      SortedSet<PatientInterface> occupants = roomOccupants.get(room.getId());
+      if (occupants != null) {
+        occupants.remove(patient);
+        if (occupants.isEmpty()) {
+          roomOccupants.remove(room.getId());
         }
+        occupancyHistory.record(room.getId(), clock.millis(), occupants.size());
+        occupantsChanged(room);
       }
     }
-    return true;
+  }
+
+  /**
+   * Helper method to drop the rendered text of a room after its occupants changed. 
+   * Nothing is dropped when the room is null (not in clinic).
+   * 
+   * @param room the changed room, or null
+   */
+  private void occupantsChanged(RoomInterface room) {
+    if (room != null) {
+      roomInfoChanged(room);
+      seatingLineCache.remove(room.getId());
+      seatingChartCache = null;
+    }
+  }
+
+  /**
+   * Helper method to drop the room information of a room after the assigned staff or the 
+   * last visit of an occupant changed, which the seating chart does not show. 
+   * Nothing is dropped when the room is null (not in clinic).
+   * 
+   * @param room the changed room, or null
+   */
+  private void roomInfoChanged(RoomInterface room) {
+    if (room != null) {
+      roomInfoCache.remove(room.getId());
+    }
+  }
+
+  /**
+   * Helper method to record a staff member in the staff assignment index of a patient.
+   * 
+   * @param index the staff assignment index to be updated
+   * @param patient the patient the staff member is assigned to
+   * @param staff the assigned staff member
+   */
+  private static void addStaffAssignment(Map<Integer, SortedSet<StaffInterface>> index, 
+      PatientInterface patient, StaffInterface staff) {
+    index.computeIfAbsent(patient.getId(), id -> new TreeSet<>(STAFF_BY_ID)).add(staff);
+  }
+
+  /**
+   * Helper method to get the shared instance of a room in this clinic, so that all 
+   * patients in the same room refer to the same room instance.
+   * 
+   * @param room the room, possibly a copy of a room in this clinic
+   * @return the room instance of this clinic equal to the given room, or the given 
+   *     room itself if it is not in this clinic
+   */
+  private RoomInterface canonicalRoom(RoomInterface room) {
+    RoomInterface known = findRoomById(room.getId());
+    return known != null && known.equals(room) ? known : room;
   }
   
   /**
-   * Helper method to check if two rectangles intersect.
+   * Helper method to look up an entity in an ID-indexed list.
    * 
-   * @param left1 the lower-left corner x coordinate of the first rectangle
-   * @param bottom1 the lower-left corner y coordinate of the first rectangle
-   * @param right1 the upper-right corner x coordinate of the first rectangle
-   * @param top1 the upper-right corner y coordinate of the first rectangle
-   * @param left2 the lower-left corner x coordinate of the second rectangle
-   * @param bottom2 the lower-left corner y coordinate of the second rectangle
-   * @param right2 the upper-right corner x coordinate of the second rectangle
-   * @param top2 the upper-right corner y coordinate of the second rectangle
-   * @return true if two rectangles intersect, false if not
-   */
-  private static Boolean isIntersect(
-      int left1, int bottom1, int right1, int top1, 
-      int left2, int bottom2, int right2, int top2) {
-    // Check for horizontal overlap
-    if (right1 < left2 || right2 < left1) {
-      return false;
+   * @param <T> the type of the entity
+   * @param index the ID-indexed list
+   * @param id the ID of the entity
+   * @return the entity with that ID, or null if there is none
+   */
+  private static <T> T findById(List<T> index, int id) {
+    return id >= 0 && id < index.size() ? index.get(id) : null;
+  }
+  
+  /**
+   * Helper method to put an entity into the slot of its ID in an ID-indexed list, 
+   * growing the list with empty (null) slots when needed.
+   * 
+   * @param <T> the type of the entity
+   * @param index the ID-indexed list
+   * @param id the ID of the entity
+   * @param entity the entity to be indexed
+   */
+  private static <T> void putById(List<T> index, int id, T entity) {
+    while (index.size() <= id) {
+      index.add(null);
     }
-    // Check for vertical overlap
-    if (top1 < bottom2 || top2 < bottom1) {
-      return false;
+    index.set(id, entity);
+  }
+
+  /**
+   * Helper method to check if the specified room is available for a patient to be assigned to.
+   * A waiting room is always available since it can accommodate multiple patients.
+   * A non-waiting room is available only when it is not currently assigned to another patient.
+   * 
+   * @param room the specified room
+   * @return true if the room is available, false if not
+   */
+  private boolean isRoomAvailable(RoomInterface room) {
+    if (!room.getRoomType().equals("WAITING")) { // A waiting room can host multiple patients
+      // A non-waiting room can only accommodate a single patient
+      return !roomOccupants.containsKey(room.getId());
     }
     return true;
   }
@@ -485,12 +1305,46 @@ public class Clinic implements ClinicInterface {
    */
   public void clearState() {
     if (instance != null) {
-      rooms.clear();
-      staffs.clear();
-      patients.clear();
-      Room.clearLastNumberAssigned();
-      AbstractStaff.clearLastNumberAssigned();
-      Patient.clearLastNumberAssigned();
+      clearModel();
+      clock = Clock.systemDefaultZone();
     }
   }
+  
+  /**
+   * Helper method to remove all the entities and their visit rows from the model and number 
+   * new entities from 1 again, keeping the clock.
+   */
+  private void clearModel() {
+    rooms.clear();
+    staffs.clear();
+    patients.clear();
+    roomOccupants.clear();
+    assignedStaff.clear();
+    everAssignedStaff.clear();
+    patientKeys.clear();
+    nameIndex.clear();
+    visitIndex.clear();
+    lastVisits.clear();
+    lastVisitIndex.clear();
+    frequentCounter.clear();
+    workload.clear();
+    dailyPatients.clear();
+    monthlyPatients.clear();
+    yearlyPatients.clear();
+    occupancyHistory.clear();
+    roomsById.clear();
+    staffById.clear();
+    patientsById.clear();
+    roomsSnapshot = null;
+    staffSnapshot = null;
+    patientsSnapshot = null;
+    roomInfoCache.clear();
+    seatingLineCache.clear();
+    seatingChartCache = null;
+    VisitStore.reset();
+    modelChanged();
+    Room.clearLastNumberAssigned();
+    AbstractStaff.clearLastNumberAssigned();
+    Patient.clearLastNumberAssigned();
+  }
 }
@@ -2,7 +2,12 @@ package clinic;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * It represents a health clinic including its designated operations:
@@ -26,26 +31,237 @@ public interface ClinicInterface {
   public String getName();
 
   /**
-   * Retrieves the list of the rooms of the clinic.
+   * Retrieves a read-only snapshot of the list of the rooms of the clinic.
+   * The same snapshot is returned until the list of the rooms changes.
    * 
-   * @return the list of the rooms of the clinic
+   * @return the read-only list of the rooms of the clinic
    */
   public List<RoomInterface> getRooms();
 
   /**
-   * Retrieves the list of the staff members of the clinic.
+   * Retrieves a read-only snapshot of the list of the staff members of the clinic.
+   * The same snapshot is returned until the list of the staff members changes.
    * 
-   * @return the list of the staff members of the clinic
+   * @return the read-only list of the staff members of the clinic
    */
   public List<StaffInterface> getStaff();
 
   /**
-   * Retrieves the list of the patients of the clinic.
+   * Retrieves a read-only snapshot of the list of the patients of the clinic.
+   * The same snapshot is returned until the list of the patients changes.
    * 
-   * @return the list of the patients of the clinic
+   * @return the read-only list of the patients of the clinic
    */
   public List<PatientInterface> getPatients();
   
+  /**
+   * Retrieves the version of the clinic model, which increases whenever the model is 
+   * changed through this clinic. Callers can compare versions to tell if anything has 
+   * changed since they last read the model.
+   * 
+   * @return the current version of the model
+   */
+  public int getVersion();
+  
+  /**
+   * Retrieves the patients currently in the specified room.
+   * 
+   * @param room the specified room
+   * @return the list of the patients in the room, sorted by patient ID
+   */
+  public List<PatientInterface> getPatientsInRoom(RoomInterface room);
+  
+  /**
+   * Searches the registered patients by first and last name. Patients whose names start with 
+   * the query words come first, followed by patients with similarly spelled names, so that 
+   * a typo in the query still finds the patient.
+   * 
+   * @param query the words to search for, case-insensitive
+   * @param limit the maximum number of patients to return
+   * @return the list of matching patients, best matches first
+   */
+  public List<PatientInterface> searchPatients(String query, int limit);
+  
+  /**
+   * Adds a visit record to a registered patient, and records the visit in the clinic-wide 
+   * visit history. Visit records added directly to the patient are not in the history.
+   * 
+   * @param patient the registered patient who visits the clinic
+   * @param registrationDateTime the date and time of registration (yyyy/MM/dd HH:mm)
+   * @param chiefComplaint the patient's chief complaint
+   * @param bodyTemperature the patient's body temperature in degrees Celsius
+   * @return the added visit record, or null if the patient already has a visit at that time
+   * @throws IllegalStateException if the patient is not registered
+   */
+  public VisitRecordInterface addVisitRecord(PatientInterface patient, 
+      String registrationDateTime, String chiefComplaint, double bodyTemperature) 
+      throws IllegalStateException;
+  
+  /**
+   * Retrieves the patients who visited the clinic in the specified period.
+   * 
+   * @param from the start of the period (inclusive)
+   * @param to the end of the period (exclusive)
+   * @return the list of the patients without duplicates, in order of their first visit 
+   *     in the period
+   */
+  public List<PatientInterface> getPatientsVisitedBetween(LocalDateTime from, LocalDateTime to);
+  
+  /**
+   * Retrieves the dormant patients, who have visited the clinic before but have not visited 
+   * for more than 365 days from the specified day. Only the visits in the clinic-wide visit 
+   * history are considered.
+   * 
+   * @param today the day to count the 365 days back from
+   * @return the list of the dormant patients, the longest dormant first
+   */
+  public List<PatientInterface> getDormantPatients(LocalDate today);
+  
+  /**
+   * Retrieves the frequent patients, who have visited the clinic at least threshold times 
+   * in the window of the past windowDays days up to the end of the specified day. Only the 
+   * visits in the clinic-wide visit history are considered. Querying day after day only 
+   * counts the visits entering and leaving the window.
+   * 
+   * @param threshold the minimum number of visits, e.g. 2
+   * @param windowDays the number of days in the window, e.g. 365
+   * @param today the last day of the window
+   * @return the list of the frequent patients, the most visits first
+   * @throws IllegalArgumentException if threshold or windowDays is not positive
+   */
+  public List<PatientInterface> listFrequentPatients(int threshold, int windowDays, 
+      LocalDate today) throws IllegalArgumentException;
+  
+  /**
+   * Retrieves the most frequent chief complaints of the visits in the specified period. 
+   * The visits are counted exactly, with one counter per distinct chief complaint.
+   * 
+   * @param from the start of the period (inclusive)
+   * @param to the end of the period (exclusive)
+   * @param k the maximum number of complaints to return
+   * @return the top k complaints mapped to their counts, the most frequent first
+   *     and then in alphabetical order
+   * @throws IllegalArgumentException if k is not positive
+   */
+  public Map<String, Long> getTopComplaints(LocalDateTime from, LocalDateTime to, int k) 
+      throws IllegalArgumentException;
+  
+  /**
+   * Computes the statistics of the visits in the specified period, including the fever rate, 
+   * the mean and percentile body temperature by month, and the number of visits per weekday. 
+   * The visits are split into tasks run in parallel on the common fork-join pool.
+   * 
+   * @param from the start of the period (inclusive)
+   * @param to the end of the period (exclusive)
+   * @return the statistics of the visits in the period
+   */
+  public VisitStatistics getVisitStatistics(LocalDateTime from, LocalDateTime to);
+  
+  /**
+   * Finds the active clinical staff member of the specified job title who currently has 
+   * the fewest assigned patients. Only the assignments made through this model are counted.
+   * 
+   * @param jobTitle the job title, e.g. "physician", case-insensitive
+   * @return the least loaded clinician, the lowest staff ID among equals, 
+   *     or null if there is no active clinical staff member with the job title
+   */
+  public StaffInterface leastLoadedClinician(String jobTitle);
+  
+  /**
+   * Lists the active clinical staff members by job title in alphabetical order, and the 
+   * members of each job title by their number of assigned patients, the fewest first, 
+   * like {@link #leastLoadedClinician(String)}.
+   * 
+   * @return the list of active clinical staff members
+   */
+  public List<StaffInterface> listClinicalStaffByWorkload();
+  
+  /**
+   * Builds the HyperLogLog sketch of the patients who visited the clinic in the specified 
+   * days, from the sketches kept for each day, month and year. Patients are identified by name and date 
+   * of birth, so sketches of different periods or clinics can be merged to count their union.
+   * 
+   * @param from the first day (inclusive)
+   * @param to the last day (exclusive)
+   * @return a new sketch of the patients who visited
+   */
+  public HyperLogLog getUniquePatientSketch(LocalDate from, LocalDate to);
+  
+  /**
+   * Counts the patients who visited the clinic in the specified days, e.g. a day, a week 
+   * or a month. The estimate from the HyperLogLog sketches has a standard error of about 
+   * 0.8%, and the exact count reads all the visits in the days. Both identify patients by 
+   * name and date of birth, like {@link #getUniquePatientSketch(LocalDate, LocalDate)}.
+   * 
+   * @param from the first day (inclusive)
+   * @param to the last day (exclusive)
+   * @param exact true for the exact count, false for the estimate
+   * @return the number of distinct patients who visited
+   */
+  public long countUniquePatients(LocalDate from, LocalDate to, boolean exact);
+  
+  /**
+   * Retrieves the occupancy of the specified room over a time range. A sample is recorded 
+   * each time a patient enters or leaves the room, and only the most recent samples of 
+   * each room are kept.
+   * 
+   * @param room the specified room
+   * @param from the start of the time range (inclusive)
+   * @param to the end of the time range (exclusive)
+   * @return the list of the samples in time order, starting with the occupancy at from 
+   *     if it is still known
+   */
+  public List<OccupancyHistory.Sample> getOccupancyHistory(RoomInterface room, 
+      LocalDateTime from, LocalDateTime to);
+  
+  /**
+   * Starts a query for a cohort of patients. Filters are added to the returned query, and 
+   * the patients are only read when the query is run.
+   * 
+   * @return the query matching all patients until filters are added
+   */
+  public CohortQuery queryPatients();
+  
+  /**
+   * Finds the room of the clinic with the specified ID.
+   * 
+   * @param id the ID of the room
+   * @return the room with the specified ID, or null if there is no such room
+   */
+  public RoomInterface findRoomById(int id);
+  
+  /**
+   * Finds the staff member of the clinic with the specified ID.
+   * 
+   * @param id the ID of the staff member
+   * @return the staff member with the specified ID, or null if there is no such staff member
+   */
+  public StaffInterface findStaffById(int id);
+  
+  /**
+   * Finds the patient of the clinic with the specified ID.
+   * 
+   * @param id the ID of the patient
+   * @return the patient with the specified ID, or null if there is no such patient
+   */
+  public PatientInterface findPatientById(int id);
+  
+  /**
+   * Retrieves the clinical staff members currently assigned to the specified patient.
+   * 
+   * @param patient the specified patient
+   * @return the list of the staff members assigned to the patient, sorted by staff ID
+   */
+  public List<StaffInterface> getAssignedStaff(PatientInterface patient);
+  
+  /**
+   * Retrieves the clinical staff members ever assigned to the specified patient.
+   * 
+   * @param patient the specified patient
+   * @return the list of the staff members ever assigned to the patient, sorted by staff ID
+   */
+  public List<StaffInterface> getEverAssignedStaff(PatientInterface patient);
+  
   /**
    * Read the clinic specifications from a source to populate the data into model.
    * This source can be a text file using a FileReader, or a string using a StringReader.
@@ -57,6 +273,39 @@ public interface ClinicInterface {
    */
   public void readIntoModel(Reader source) throws IllegalArgumentException, IOException;
   
+  /**
+   * Read the clinic specifications from a UTF-8 text file to populate the data into model, 
+   * like {@link #readIntoModel(Reader)}. The file is memory-mapped and parsed on its bytes, 
+   * which is faster and uses less memory for very large files.
+   * 
+   * @param file the path of the clinic specification file
+   * @throws IllegalArgumentException if the specifications are invalid
+   * @throws IOException if the file cannot be read
+   */
+  public void readIntoModel(Path file) throws IllegalArgumentException, IOException;
+  
+  /**
+   * Save the whole state of the clinic into a binary snapshot file, which can be loaded 
+   * by {@link #loadSnapshot(Path)} much faster than the clinic specifications are read.
+   * 
+   * @param file the path of the snapshot file, replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public void saveSnapshot(Path file) throws IOException;
+  
+  /**
+   * Replace the state of the clinic with a binary snapshot file saved by 
+   * {@link #saveSnapshot(Path)}. The model is not changed if the file is not a snapshot, 
+   * has another format version, or fails its checksum. The model is cleared before the 
+   * entities are decoded, so if a file passing these checks still has malformed or invalid 
+   * contents, the model is left empty.
+   * 
+   * @param file the path of the snapshot file
+   * @throws IllegalArgumentException if the file is not a valid snapshot
+   * @throws IOException if the file cannot be read
+   */
+  public void loadSnapshot(Path file) throws IllegalArgumentException, IOException;
+  
   /**
    * Register a new patient. 
    * Patients start in the primary waiting room (the first room in the rooms list).
@@ -65,6 +314,17 @@ public interface ClinicInterface {
    */
   public void registerPatient(PatientInterface patient);
   
+  /**
+   * Register a batch of new patients at once. The whole batch is checked before any 
+   * patient is registered, so either all patients are registered or none of them is.
+   * 
+   * @param patients the patients to be registered
+   * @throws IllegalStateException if any patient in the batch is already registered or 
+   *     appears more than once, with every conflicting patient listed in the message
+   */
+  public void registerPatients(Collection<PatientInterface> patients) 
+      throws IllegalStateException;
+  
   /**
    * Register a new clinical staff member.
    * 
@@ -90,6 +350,15 @@ public interface ClinicInterface {
    */
   public void deactivateClinicalStaff(StaffInterface staff);
   
+  /**
+   * Change the job title of a staff member, which moves a clinical staff member to the 
+   * staff of the new job title in {@link #leastLoadedClinician(String)}.
+   * 
+   * @param staff the staff member
+   * @param jobTitle the new job title
+   */
+  public void changeStaffJobTitle(StaffInterface staff, String jobTitle);
+  
   /**
    * Assign a patient to a specified room, which will supersede a room the patient was 
    * previously assigned to. Will check room availability before assignment. 
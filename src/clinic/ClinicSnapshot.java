@@ -0,0 +1,422 @@
+package clinic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class represents a binary snapshot of the whole state of a clinic, which loads much
+ * faster than the text specification since nothing is parsed from text. The file holds:
+ * - a header: the magic number {@code CLNC} and the format version
+ * - the clinic name and the rooms
+ * - the distinct chief complaints, referred to by their index in the visit records
+ * - the patients, each with the index of the assigned room and the visit records, in
+ *   order of time, with the minutes stored as the difference from the previous visit
+ * - the staff members, each with the active flag and the indices of the patients ever
+ *   assigned, flagged if still assigned
+ * - a trailer: the CRC-32 checksum of all the bytes before it
+ *
+ * Counts, indices, coordinates and minute differences are stored as variable-length
+ * integers, and strings as their UTF-8 bytes after the length. Entity IDs are not stored,
+ * entities are numbered again in order when decoded, as when read from a specification.
+ *
+ * A snapshot is written to a temporary file next to the target, which then replaces the
+ * target in one atomic move, so a failed save never leaves a partial snapshot behind.
+ * A snapshot is read in two steps, so that the file is checked before the model is
+ * changed: {@link #read} checks the header and the checksum, then {@link #decode} creates
+ * the entities.
+ */
+public class ClinicSnapshot {
+  private static final int MAGIC = 0x434C4E43; // "CLNC"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 8;
+  private static final int CHECKSUM_BYTES = 4;
+  private static final DateTimeFormatter DATE_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+  private final ByteBuffer body;
+  private String name;
+  private final List<RoomInterface> rooms;
+  private final List<PatientInterface> patients;
+  private final List<StaffInterface> staff;
+
+  /**
+   * Hidden constructor of a ClinicSnapshot over the checked bytes of a file.
+   *
+   * @param body the bytes between the header and the trailer
+   */
+  private ClinicSnapshot(ByteBuffer body) {
+    this.body = body;
+    rooms = new ArrayList<>();
+    patients = new ArrayList<>();
+    staff = new ArrayList<>();
+  }
+
+  /**
+   * Writes a snapshot of the state of a clinic to a file, replacing the file if it exists.
+   * The file is left unchanged if the snapshot cannot be written.
+   *
+   * @param clinic the clinic to be saved
+   * @param file the path of the snapshot file
+   * @throws IOException if the file cannot be written
+   * @throws IllegalStateException if a patient is assigned to a room not in the clinic, or
+   *     a staff member to a patient not in the clinic, which cannot be saved
+   */
+  public static void write(ClinicInterface clinic, Path file)
+      throws IOException, IllegalStateException {
+    List<RoomInterface> rooms = clinic.getRooms();
+    List<PatientInterface> patients = clinic.getPatients();
+    List<StaffInterface> staff = clinic.getStaff();
+    Map<RoomInterface, Integer> roomIndices = new HashMap<>();
+    for (int i = 0; i < rooms.size(); i++) {
+      roomIndices.put(rooms.get(i), i);
+    }
+    Map<PatientInterface, Integer> patientIndices = new HashMap<>();
+    for (int i = 0; i < patients.size(); i++) {
+      patientIndices.put(patients.get(i), i);
+    }
+    Map<String, Integer> complaints = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+    for (PatientInterface p : patients) {
+      for (VisitRecordInterface v : p.getVisitRecords()) {
+        if (complaints.putIfAbsent(v.getChiefComplaint(), dictionary.size()) == null) {
+          dictionary.add(v.getChiefComplaint());
+        }
+      }
+    }
+
+    Path target = file.toAbsolutePath();
+    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try {
+      CRC32 crc = new CRC32();
+      try (OutputStream stream = Files.newOutputStream(temp)) {
+        DataOutputStream out = new DataOutputStream(
+            new CheckedOutputStream(new BufferedOutputStream(stream), crc));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, clinic.getName() == null ? "" : clinic.getName());
+
+        writeVarInt(out, rooms.size());
+        for (RoomInterface r : rooms) {
+          for (int coordinate : r.getPosition()) {
+            writeVarInt(out, coordinate);
+          }
+          writeString(out, r.getRoomType());
+          writeString(out, r.getRoomName());
+        }
+
+        writeVarInt(out, dictionary.size());
+        for (String complaint : dictionary) {
+          writeString(out, complaint);
+        }
+
+        writeVarInt(out, patients.size());
+        for (PatientInterface p : patients) {
+          writeString(out, p.getFirstName());
+          writeString(out, p.getLastName());
+          out.writeInt((int) p.getDateOfBirth().toEpochDay());
+          writeVarInt(out, indexOf(roomIndices, p.getAssignedRoom(), "room"));
+          List<VisitRecordInterface> visits = new ArrayList<>(p.getVisitRecords());
+          writeVarInt(out, visits.size());
+          long previous = 0;
+          for (VisitRecordInterface v : visits) {
+            long minute = VisitStore.toMinute(v.getRegistrationDateTime());
+            writeVarLong(out, minute - previous); // positive after the first visit
+            previous = minute;
+            writeVarInt(out, complaints.get(v.getChiefComplaint()));
+            out.writeShort((int) Math.round(v.getBodyTemperature() * 100));
+          }
+        }
+
+        writeVarInt(out, staff.size());
+        for (StaffInterface s : staff) {
+          out.writeBoolean(s instanceof ClinicalStaff);
+          writeString(out, s.getJobTitle());
+          writeString(out, s.getFirstName());
+          writeString(out, s.getLastName());
+          writeString(out, s.getEducationLevel());
+          writeString(out, s.getNpiCpr());
+          out.writeBoolean(s.isActive());
+          writeVarInt(out, s.getEverAssigned().size());
+          for (PatientInterface p : s.getEverAssigned()) {
+            int assigned = s.getAssignedPatients().contains(p) ? 1 : 0;
+            writeVarInt(out, (indexOf(patientIndices, p, "patient") - 1) << 1 | assigned);
+          }
+        }
+        out.flush();
+        new DataOutputStream(stream).writeInt((int) crc.getValue()); // not part of the checksum
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp); // only left behind if not moved
+    }
+  }
+
+  /**
+   * Reads a snapshot file and checks its header and checksum, without creating any entity.
+   *
+   * @param file the path of the snapshot file
+   * @return the snapshot, to be decoded
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a snapshot, has another format
+   *     version, or is corrupted
+   */
+  public static ClinicSnapshot read(Path file) throws IOException, IllegalArgumentException {
+    byte[] bytes = Files.readAllBytes(file);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < HEADER_BYTES + CHECKSUM_BYTES || buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a clinic snapshot.");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported snapshot version " + version + ".");
+    }
+    int end = bytes.length - CHECKSUM_BYTES;
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, end);
+    if (buffer.getInt(end) != (int) crc.getValue()) {
+      throw new IllegalArgumentException("Snapshot checksum mismatch.");
+    }
+    buffer.limit(end);
+    return new ClinicSnapshot(buffer.slice());
+  }
+
+  /**
+   * Creates the entities of the snapshot: the rooms, the patients assigned to their rooms
+   * with their visit records, and the staff members assigned to their patients.
+   *
+   * @throws IllegalArgumentException if the snapshot is malformed
+   * @throws IllegalStateException if the snapshot was already decoded
+   */
+  public void decode() throws IllegalArgumentException, IllegalStateException {
+    if (name != null) {
+      throw new IllegalStateException("The snapshot was already decoded.");
+    }
+    try {
+      name = readString();
+
+      int numRooms = readVarInt();
+      for (int i = 0; i < numRooms; i++) {
+        int left = readVarInt();
+        int bottom = readVarInt();
+        int right = readVarInt();
+        int top = readVarInt();
+        String roomType = readString();
+        rooms.add(new Room(left, bottom, right, top, roomType, readString()));
+      }
+
+      String[] dictionary = new String[readVarInt()];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = readString();
+      }
+
+      int numPatients = readVarInt();
+      for (int i = 0; i < numPatients; i++) {
+        String firstName = readString();
+        String lastName = readString();
+        String dateOfBirth = LocalDate.ofEpochDay(body.getInt()).format(DATE_FORMATTER);
+        PatientInterface patient = new Patient(firstName, lastName, dateOfBirth);
+        int room = readVarInt();
+        if (room > 0) {
+          patient.assignToRoom(rooms.get(room - 1));
+        }
+        int numVisits = readVarInt();
+        long minute = 0;
+        for (int k = 0; k < numVisits; k++) {
+          minute += readVarLong();
+          String complaint = dictionary[readVarInt()];
+          double temperature = body.getShort() / 100.0;
+          patient.addVisitRecord(VisitStore.fromMinute(minute), complaint, temperature);
+        }
+        patients.add(patient);
+      }
+
+      int numStaff = readVarInt();
+      for (int i = 0; i < numStaff; i++) {
+        boolean clinical = body.get() != 0;
+        String jobTitle = readString();
+        String firstName = readString();
+        String lastName = readString();
+        String educationLevel = readString();
+        String npiCpr = readString();
+        StaffInterface s = clinical
+            ? new ClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr)
+            : new NonClinicalStaff(jobTitle, firstName, lastName, educationLevel, npiCpr);
+        boolean active = body.get() != 0;
+        int numAssigned = readVarInt();
+        for (int k = 0; k < numAssigned; k++) { // assigned while active, then unassigned
+          int entry = readVarInt();
+          PatientInterface p = patients.get(entry >>> 1);
+          s.assignToPatient(p);
+          if ((entry & 1) == 0) {
+            s.unassignFromPatient(p);
+          }
+        }
+        s.setActive(active);
+        staff.add(s);
+      }
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Malformed clinic snapshot.");
+    }
+  }
+
+  /**
+   * Gets the name of the clinic, once decoded.
+   *
+   * @return the name of the clinic
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the decoded rooms, in order.
+   *
+   * @return the list of rooms
+   */
+  public List<RoomInterface> getRooms() {
+    return rooms;
+  }
+
+  /**
+   * Gets the decoded patients, in order, assigned to their rooms with their visit records.
+   *
+   * @return the list of patients
+   */
+  public List<PatientInterface> getPatients() {
+    return patients;
+  }
+
+  /**
+   * Gets the decoded staff members, in order, assigned to their patients.
+   *
+   * @return the list of staff members
+   */
+  public List<StaffInterface> getStaff() {
+    return staff;
+  }
+
+  /**
+   * Helper method to find the index of an entity in the snapshot, counted from 1.
+   *
+   * @param indices the index of each entity in the clinic, from 0
+   * @param entity the entity, or null
+   * @param kind the kind of entity for the error message
+   * @return the index plus 1, or 0 for null
+   * @throws IllegalStateException if the entity is not in the clinic
+   */
+  private static <T> int indexOf(Map<T, Integer> indices, T entity, String kind)
+      throws IllegalStateException {
+    if (entity == null) {
+      return 0;
+    }
+    Integer index = indices.get(entity);
+    if (index == null) {
+      throw new IllegalStateException("Cannot save an assignment to a " + kind
+          + " not in the clinic.");
+    }
+    return index + 1;
+  }
+
+  /**
+   * Helper method to write a non-negative integer in 7-bit groups, low group first.
+   *
+   * @param out the output
+   * @param value the non-negative integer
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    writeVarLong(out, value);
+  }
+
+  /**
+   * Helper method to write a non-negative long in 7-bit groups, low group first.
+   *
+   * @param out the output
+   * @param value the non-negative long
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /**
+   * Helper method to write a string as its length in UTF-8 bytes and the bytes.
+   *
+   * @param out the output
+   * @param value the string
+   * @throws IOException if the output cannot be written
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Helper method to read a non-negative integer written by {@link #writeVarInt}.
+   *
+   * @return the integer
+   * @throws IllegalArgumentException if it does not fit in an int
+   */
+  private int readVarInt() throws IllegalArgumentException {
+    long value = readVarLong();
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Malformed clinic snapshot.");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Helper method to read a non-negative long written by {@link #writeVarLong}.
+   *
+   * @return the long
+   * @throws IllegalArgumentException if it has more than 64 bits
+   */
+  private long readVarLong() throws IllegalArgumentException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = body.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed clinic snapshot.");
+  }
+
+  /**
+   * Helper method to read a string written by {@link #writeString}.
+   *
+   * @return the string
+   */
+  private String readString() {
+    int length = readVarInt();
+    if (length > body.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    String value = new String(body.array(), body.arrayOffset() + body.position(), length,
+        StandardCharsets.UTF_8);
+    body.position(body.position() + length);
+    return value;
+  }
+}
@@ -2,7 +2,6 @@ package clinic;
 
 import clinic.AbstractStaff.EducationLevel;
 import java.util.ArrayList;
-import java.util.Objects;
 
 /**
  * This class extends the {@link AbstractStaff} interface.
@@ -43,8 +42,8 @@ public class ClinicalStaff extends AbstractStaff {
     if (!isActive()) {
       throw new IllegalStateException("This staff has been deactivated.");
     }
-    this.assignedPatients.add(assignedPatient);
-    this.everAssigned.add(assignedPatient);
+    this.assignedPatients = assignedPatients.plus(assignedPatient);
+    this.everAssigned = everAssigned.plus(assignedPatient);
   }
   
   @Override
@@ -55,7 +54,7 @@ public class ClinicalStaff extends AbstractStaff {
     if (!assignedPatients.contains(assignedPatient)) {
       throw new IllegalStateException("This staff wasn't assigned to this patient.");
     }
-    this.assignedPatients.remove(assignedPatient);
+    this.assignedPatients = assignedPatients.minus(assignedPatient);
   }
   
   @Override
@@ -92,30 +91,5 @@ public class ClinicalStaff extends AbstractStaff {
     }
     return title + this.getFirstName() + " " + this.getLastName();
   }
-
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) { 
-      return true;
-    }
-    if (!(o instanceof ClinicalStaff)) {
-      return false;
-    }
-    ClinicalStaff that = (ClinicalStaff) o;
-    return this.getId() == that.getId() 
-        && Objects.equals(this.getFirstName(), that.getFirstName())
-        && Objects.equals(this.getLastName(), that.getLastName()) 
-        && Objects.equals(this.getJobTitle(), that.getJobTitle()) 
-        && Objects.equals(this.getEducationLevel(), that.getEducationLevel())
-        && Objects.equals(this.getAssignedPatients(), that.getAssignedPatients()) 
-        && Objects.equals(this.getNpiCpr(), that.getNpiCpr()) 
-        && this.isActive() == that.isActive();
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(getId(), getFirstName(), getLastName(), getJobTitle(), 
-        getEducationLevel(), getAssignedPatients(), getNpiCpr(), isActive());
-  }
   
 }
@@ -0,0 +1,249 @@
+package clinic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class represents a query for a cohort of patients in {@link Clinic}, built by chaining
+ * filters, e.g. {@code clinic.queryPatients().ageBetween(65, 120, today).complaint("Cough")}.
+ * All filters must match, and the visit filters must match the same visit.
+ *
+ * The query is lazy: nothing is read until {@link #stream()}, {@link #list()} or
+ * {@link #count()} is called, and the patients are streamed without intermediate lists.
+ * The candidates are read from the most selective index available, in this order:
+ * - the patients currently assigned to the staff member, with {@link #assignedTo}
+ * - the patients currently in the rooms of the room type, with {@link #inRoomType}
+ * - the visits in the date range of the clinic-wide visit history, with {@link #visitedBetween}
+ *   or any other visit filter, checked on the columns of {@link VisitStore}
+ * - all the patients otherwise
+ * The other filters are then checked on each candidate.
+ */
+public class CohortQuery {
+  private final ClinicInterface model;
+  private final NavigableMap<LocalDateTime, int[]> visits;
+
+  private Integer minAge;
+  private Integer maxAge;
+  private LocalDate today;
+  private String roomType;
+  private StaffInterface staff;
+  private LocalDateTime visitFrom;
+  private LocalDateTime visitTo;
+  private Double minTemperature;
+  private Double maxTemperature;
+  private String complaint;
+
+  /**
+   * Constructor of a query matching all patients of a clinic.
+   *
+   * @param model the clinic to query
+   * @param visits the clinic-wide visit history, the {@link VisitStore} rows keyed by
+   *     registration date and time
+   */
+  CohortQuery(ClinicInterface model, NavigableMap<LocalDateTime, int[]> visits) {
+    this.model = model;
+    this.visits = visits;
+  }
+
+  /**
+   * Keeps the patients of an age range on the specified day.
+   *
+   * @param min the minimum age in years (inclusive)
+   * @param max the maximum age in years (inclusive)
+   * @param today the day to compute the age on
+   * @return this query
+   */
+  public CohortQuery ageBetween(int min, int max, LocalDate today) {
+    this.minAge = min;
+    this.maxAge = max;
+    this.today = today;
+    return this;
+  }
+
+  /**
+   * Keeps the patients currently in a room of the specified type.
+   *
+   * @param roomType the room type, e.g. "exam", case-insensitive
+   * @return this query
+   */
+  public CohortQuery inRoomType(String roomType) {
+    this.roomType = roomType.toUpperCase(Locale.ROOT);
+    return this;
+  }
+
+  /**
+   * Keeps the patients the specified staff member is currently assigned to.
+   *
+   * @param staff the staff member
+   * @return this query
+   */
+  public CohortQuery assignedTo(StaffInterface staff) {
+    this.staff = staff;
+    return this;
+  }
+
+  /**
+   * Keeps the patients with a visit in the specified period.
+   *
+   * @param from the start of the period (inclusive)
+   * @param to the end of the period (exclusive)
+   * @return this query
+   */
+  public CohortQuery visitedBetween(LocalDateTime from, LocalDateTime to) {
+    this.visitFrom = from;
+    this.visitTo = to;
+    return this;
+  }
+
+  /**
+   * Keeps the patients with a visit with a body temperature in the specified range.
+   *
+   * @param min the minimum body temperature in degrees Celsius (inclusive)
+   * @param max the maximum body temperature in degrees Celsius (inclusive)
+   * @return this query
+   */
+  public CohortQuery temperatureBetween(double min, double max) {
+    this.minTemperature = min;
+    this.maxTemperature = max;
+    return this;
+  }
+
+  /**
+   * Keeps the patients with a visit with the specified chief complaint.
+   *
+   * @param complaint the chief complaint, matched exactly
+   * @return this query
+   */
+  public CohortQuery complaint(String complaint) {
+    this.complaint = complaint;
+    return this;
+  }
+
+  /**
+   * Runs the query lazily.
+   *
+   * @return the stream of the matching patients without duplicates
+   */
+  public Stream<PatientInterface> stream() {
+    Stream<PatientInterface> candidates;
+    boolean visitsChecked = false;
+    if (staff != null) {
+      candidates = staff.getAssignedPatients().stream();
+    } else if (roomType != null) {
+      candidates = model.getRooms().stream()
+          .filter(r -> r.getRoomType().equals(roomType))
+          .flatMap(r -> model.getPatientsInRoom(r).stream());
+    } else if (hasVisitFilter()) {
+      candidates = visitCandidates();
+      visitsChecked = true;
+    } else {
+      candidates = model.getPatients().stream();
+    }
+
+    List<Predicate<PatientInterface>> filters = new ArrayList<>();
+    if (staff != null && roomType != null) {
+      filters.add(p -> p.getAssignedRoom() != null
+          && p.getAssignedRoom().getRoomType().equals(roomType));
+    }
+    if (minAge != null) {
+      filters.add(p -> {
+        int age = Period.between(p.getDateOfBirth(), today).getYears();
+        return age >= minAge && age <= maxAge;
+      });
+    }
+    if (hasVisitFilter() && !visitsChecked) {
+      filters.add(p -> p.getVisitRecords().stream().anyMatch(this::matchesVisit));
+    }
+    for (Predicate<PatientInterface> filter : filters) {
+      candidates = candidates.filter(filter);
+    }
+    return candidates;
+  }
+
+  /**
+   * Runs the query and collects the matching patients.
+   *
+   * @return the list of the matching patients
+   */
+  public List<PatientInterface> list() {
+    return stream().collect(Collectors.toList());
+  }
+
+  /**
+   * Runs the query and counts the matching patients.
+   *
+   * @return the number of the matching patients
+   */
+  public long count() {
+    return stream().count();
+  }
+
+  /**
+   * Helper method to check if any visit filter is set.
+   *
+   * @return true if a visit filter is set, false if not
+   */
+  private boolean hasVisitFilter() {
+    return visitFrom != null || minTemperature != null || complaint != null;
+  }
+
+  /**
+   * Helper method to stream the patients of the matching visits in the visit history,
+   * checking the visit filters on the store columns without creating visit records.
+   *
+   * @return the stream of the patients, in order of their first matching visit
+   */
+  private Stream<PatientInterface> visitCandidates() {
+    VisitStore store = VisitStore.getInstance();
+    int code = complaint == null ? -1 : store.codeOf(complaint);
+    if (complaint != null && code < 0) { // no visit ever had this complaint
+      return Stream.empty();
+    }
+    VisitStore.Columns columns = store.columns();
+    Collection<int[]> rows = visitFrom == null ? visits.values()
+        : visitFrom.isBefore(visitTo) ? visits.subMap(visitFrom, true, visitTo, false).values()
+        : new ArrayList<>();
+    return rows.stream()
+        .flatMapToInt(Arrays::stream)
+        .filter(row -> complaint == null || columns.getComplaintCode(row) == code)
+        .filter(row -> minTemperature == null
+            || matchesTemperature(columns.getTemperatureHundredths(row) / 100.0))
+        .map(columns::getPatientId)
+        .distinct()
+        .mapToObj(model::findPatientById);
+  }
+
+  /**
+   * Helper method to check a visit record against the visit filters.
+   *
+   * @param v the visit record
+   * @return true if the visit matches all the visit filters, false if not
+   */
+  private boolean matchesVisit(VisitRecordInterface v) {
+    return (visitFrom == null || (!v.getRegistrationDateTime().isBefore(visitFrom)
+            && v.getRegistrationDateTime().isBefore(visitTo)))
+        && (minTemperature == null || matchesTemperature(v.getBodyTemperature()))
+        && (complaint == null || complaint.equals(v.getChiefComplaint()));
+  }
+
+  /**
+   * Helper method to check a body temperature against the temperature filter, with the
+   * precision of the visit store.
+   *
+   * @param temperature the body temperature in degrees Celsius
+   * @return true if the temperature is in the range, false if not
+   */
+  private boolean matchesTemperature(double temperature) {
+    return temperature >= minTemperature - 0.005 && temperature <= maxTemperature + 0.005;
+  }
+}
@@ -0,0 +1,156 @@
+package clinic;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is a {@link SpecTokenizer} reading a UTF-8 specification file through memory
+ * mapped windows of a {@link FileChannel}, for files larger than the heap. Line terminators
+ * are found on the bytes, and the bytes of each line are copied into the line buffer,
+ * widening ASCII bytes to chars without a decoder, so the file is never decoded into
+ * Strings; only the lines with non-ASCII bytes, such as accented names, are decoded.
+ * It keeps:
+ * - {@code channel}, {@code fileSize}: the open file and its size in bytes
+ * - {@code window}, {@code windowStart}: the mapped part of the file and its offset, mapped
+ *   again from the start of the current line when a line crosses its end
+ * - {@code position}: the position of the next line in the window
+ * - {@code bytes}: a reusable buffer for decoding the non-ASCII lines
+ */
+public class MappedSpecTokenizer extends SpecTokenizer {
+  private static final int DEFAULT_WINDOW_SIZE = 1 << 28; // 256 MB of address space
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int position;
+  private boolean skipLineFeed; // the last line ended with \r, so a following \n is skipped
+  private byte[] bytes;
+
+  /**
+   * Constructor of a MappedSpecTokenizer before the first line of a file.
+   *
+   * @param file the path of the specification file
+   * @throws IOException if the file cannot be opened or mapped
+   */
+  public MappedSpecTokenizer(Path file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor of a MappedSpecTokenizer with a window size, mostly for testing lines
+   * crossing the windows.
+   *
+   * @param file the path of the specification file
+   * @param windowSize the maximum number of bytes mapped at once, at least the longest line
+   * @throws IOException if the file cannot be opened or mapped
+   * @throws IllegalArgumentException if the window size is not positive
+   */
+  public MappedSpecTokenizer(Path file, int windowSize)
+      throws IOException, IllegalArgumentException {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Window size must be positive.");
+    }
+    this.windowSize = windowSize;
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    fileSize = channel.size();
+    bytes = new byte[128];
+    map(0);
+  }
+
+  @Override
+  public boolean nextLine() throws IOException {
+    if (skipLineFeed) {
+      skipLineFeed = false;
+      if (available() && window.get(position) == '\n') {
+        position++;
+      }
+    }
+    if (!available()) {
+      return false;
+    }
+    int end = position;
+    boolean ascii = true;
+    while (true) {
+      int limit = window.limit();
+      while (end < limit) {
+        byte b = window.get(end);
+        if (b == '\n' || b == '\r') {
+          break;
+        }
+        ascii &= b >= 0;
+        end++;
+      }
+      if (end < limit || windowStart + limit == fileSize) {
+        break;
+      }
+      // The line crosses the end of the window, map it again from the start of the line
+      if (position == 0) {
+        throw new IllegalArgumentException(
+            "Line " + (getLineNumber() + 1) + " is longer than the mapped window.");
+      }
+      end -= position;
+      map(windowStart + position);
+    }
+
+    int length = end - position;
+    if (ascii) {
+      char[] line = lineBuffer(length);
+      for (int i = 0; i < length; i++) {
+        line[i] = (char) window.get(position + i);
+      }
+    } else {
+      if (bytes.length < length) {
+        bytes = new byte[Math.max(length, bytes.length * 2)];
+      }
+      window.get(position, bytes, 0, length);
+      String decoded = new String(bytes, 0, length, StandardCharsets.UTF_8);
+      length = decoded.length();
+      decoded.getChars(0, length, lineBuffer(length), 0);
+    }
+    startLine(length);
+    if (end < window.limit()) { // skip the line terminator
+      skipLineFeed = window.get(end) == '\r';
+      end++;
+    }
+    position = end;
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Helper method to check if there are more bytes after the position, mapping the next
+   * window when the position is at the end of the current one.
+   *
+   * @return true if there are more bytes, false at the end of the file
+   * @throws IOException if the next window cannot be mapped
+   */
+  private boolean available() throws IOException {
+    if (position == window.limit() && windowStart + position < fileSize) {
+      map(windowStart + position);
+    }
+    return position < window.limit();
+  }
+
+  /**
+   * Helper method to map the window from an offset of the file.
+   *
+   * @param offset the offset of the window in the file
+   * @throws IOException if the window cannot be mapped
+   */
+  private void map(long offset) throws IOException {
+    windowStart = offset;
+    window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+        Math.min(windowSize, fileSize - offset));
+    position = 0;
+  }
+}
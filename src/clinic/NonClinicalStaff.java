@@ -2,7 +2,6 @@ package clinic;
 
 import clinic.AbstractStaff.EducationLevel;
 import java.util.ArrayList;
-import java.util.Objects;
 
 /**
  * This class extends the {@link AbstractStaff} interface.
@@ -69,31 +68,6 @@ public class NonClinicalStaff extends AbstractStaff {
     return this.getFirstName() + " " + this.getLastName();
   }
   
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) { 
-      return true;
-    }
-    if (!(o instanceof NonClinicalStaff)) {
-      return false;
-    }
-    NonClinicalStaff that = (NonClinicalStaff) o;
-    return this.getId() == that.getId() 
-        && Objects.equals(this.getFirstName(), that.getFirstName())
-        && Objects.equals(this.getLastName(), that.getLastName()) 
-        && Objects.equals(this.getJobTitle(), that.getJobTitle()) 
-        && Objects.equals(this.getEducationLevel(), that.getEducationLevel())
-        && Objects.equals(this.getAssignedPatients(), that.getAssignedPatients()) 
-        && Objects.equals(this.getNpiCpr(), that.getNpiCpr()) 
-        && this.isActive() == that.isActive();
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(getId(), getFirstName(), getLastName(), getJobTitle(), 
-        getEducationLevel(), getAssignedPatients(), getNpiCpr(), isActive());
-  }
-  
   /**
    * CPR levels that the staff members have acquired.
    */
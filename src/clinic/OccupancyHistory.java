@@ -0,0 +1,187 @@
+package clinic;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class records the occupancy of each room of {@link Clinic} over time. Each room has a
+ * ring buffer of primitive arrays, which starts small and doubles as samples are recorded
+ * until it holds the capacity, after which the oldest samples are overwritten. So a room
+ * rarely occupied takes little memory, and the memory used is bounded by the number of
+ * rooms however long the clinic runs. Samples are expected to be recorded in time order,
+ * so a query finds the start of its range by binary search.
+ * - {@code capacity}: the number of samples kept for each room
+ * - {@code buffers}: the ring buffer of each room, indexed by room ID with null gaps
+ */
+public class OccupancyHistory {
+  private static final int INITIAL_SAMPLES = 4;
+
+  private final int capacity;
+  private final List<RingBuffer> buffers;
+
+  /**
+   * Constructor of an OccupancyHistory with no rooms.
+   *
+   * @param capacity the number of samples kept for each room
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public OccupancyHistory(int capacity) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive.");
+    }
+    this.capacity = capacity;
+    buffers = new ArrayList<>();
+  }
+
+  /**
+   * Allocates the ring buffer of a room, with an initial sample of no occupants.
+   *
+   * @param roomId the ID of the room
+   * @param time the time of the initial sample, in epoch milliseconds
+   */
+  public void addRoom(int roomId, long time) {
+    while (buffers.size() <= roomId) {
+      buffers.add(null);
+    }
+    RingBuffer buffer = new RingBuffer(Math.min(INITIAL_SAMPLES, capacity));
+    buffer.add(time, 0, capacity);
+    buffers.set(roomId, buffer);
+  }
+
+  /**
+   * Records a sample of the occupancy of a room. Rooms without a ring buffer are ignored.
+   *
+   * @param roomId the ID of the room
+   * @param time the time of the sample, in epoch milliseconds
+   * @param occupancy the number of patients in the room
+   */
+  public void record(int roomId, long time, int occupancy) {
+    if (roomId >= 0 && roomId < buffers.size() && buffers.get(roomId) != null) {
+      buffers.get(roomId).add(time, occupancy, capacity);
+    }
+  }
+
+  /**
+   * Retrieves the recorded samples of a room in a time range. The first sample is the
+   * occupancy at the start of the range, if it is still kept.
+   *
+   * @param roomId the ID of the room
+   * @param from the start of the range (inclusive), in epoch milliseconds
+   * @param to the end of the range (exclusive), in epoch milliseconds
+   * @param zone the time zone to convert the sample times in
+   * @return the list of the samples in time order
+   */
+  public List<Sample> query(int roomId, long from, long to, ZoneId zone) {
+    List<Sample> result = new ArrayList<>();
+    if (roomId < 0 || roomId >= buffers.size() || buffers.get(roomId) == null) {
+      return result;
+    }
+    RingBuffer buffer = buffers.get(roomId);
+    // Binary search the first sample at or after from
+    int low = 0;
+    int high = buffer.size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (buffer.time(mid) < from) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    // The last sample before the range is still in effect at from
+    if (low > 0 && from < to && (low == buffer.size || buffer.time(low) > from)) {
+      result.add(new Sample(from, buffer.occupancy(low - 1), zone));
+    }
+    for (int i = low; i < buffer.size && buffer.time(i) < to; i++) {
+      result.add(new Sample(buffer.time(i), buffer.occupancy(i), zone));
+    }
+    return result;
+  }
+
+  /**
+   * Removes all rooms and samples.
+   */
+  public void clear() {
+    buffers.clear();
+  }
+
+  /**
+   * A ring buffer of samples in parallel primitive arrays, in time order from start.
+   */
+  private static final class RingBuffer {
+    private long[] times;
+    private int[] occupancies;
+    private int start;
+    private int size;
+
+    private RingBuffer(int initialCapacity) {
+      times = new long[initialCapacity];
+      occupancies = new int[initialCapacity];
+    }
+
+    private void add(long time, int occupancy, int capacity) {
+      if (size == times.length && size < capacity) { // not wrapped yet, so start is 0
+        int grown = (int) Math.min(capacity, 2L * size);
+        times = Arrays.copyOf(times, grown);
+        occupancies = Arrays.copyOf(occupancies, grown);
+      }
+      int slot = (start + size) % times.length;
+      times[slot] = time;
+      occupancies[slot] = occupancy;
+      if (size < times.length) {
+        size++;
+      } else { // overwrite the oldest sample
+        start = (start + 1) % times.length;
+      }
+    }
+
+    private long time(int i) {
+      return times[(start + i) % times.length];
+    }
+
+    private int occupancy(int i) {
+      return occupancies[(start + i) % times.length];
+    }
+  }
+
+  /**
+   * A sample of the occupancy of a room at a point in time.
+   * This class is immutable.
+   */
+  public static final class Sample {
+    private final LocalDateTime time;
+    private final int occupancy;
+
+    private Sample(long time, int occupancy, ZoneId zone) {
+      this.time = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), zone);
+      this.occupancy = occupancy;
+    }
+
+    /**
+     * Gets the time of the sample.
+     *
+     * @return the time from which the room had this occupancy
+     */
+    public LocalDateTime getTime() {
+      return time;
+    }
+
+    /**
+     * Gets the occupancy of the sample.
+     *
+     * @return the number of patients in the room
+     */
+    public int getOccupancy() {
+      return occupancy;
+    }
+
+    @Override
+    public String toString() {
+      return time + "=" + occupancy;
+    }
+  }
+}
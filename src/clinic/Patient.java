@@ -1,8 +1,10 @@
 package clinic;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -10,6 +12,15 @@ import java.util.TreeSet;
 /**
  * This class that implements the {@link PersonInterface} interface.
  * This class represents a patient and has the date-of-birth information.
+ * 
+ * Patients are identified by their immutable ID in equals() and hashCode(), so a patient 
+ * can be used as a hash key while its room and visit records change. Use deepEquals() 
+ * to compare all the fields.
+ * 
+ * The visit records are kept in the columns of {@link VisitStore}, and the patient only holds 
+ * the store and their rows, sorted by registration date and time. The patient keeps the store 
+ * of its first visit record, so it still reads its visit records after the clinic has reset 
+ * the store.
  */
 public class Patient implements PatientInterface {
   private static int lastNumberAssigned = 0;
@@ -19,7 +30,10 @@ public class Patient implements PatientInterface {
   private final String lastName;
   private final LocalDate dateOfBirth;
   private RoomInterface assignedRoom;
-  private final SortedSet<VisitRecordInterface> visitRecords;
+  private int[] visitRows;
+  private int visitCount;
+  private VisitStore visitStore;
+  private final int hash;
 
   /**
    * Constructor which initialize all the fields.
@@ -49,7 +63,9 @@ public class Patient implements PatientInterface {
     this.lastName = lastName;
     this.dateOfBirth = dob;
     this.assignedRoom = null;
-    this.visitRecords = new TreeSet<>();
+    this.visitRows = new int[0];
+    this.visitCount = 0;
+    this.hash = Integer.hashCode(patientId);
   }
   
   /**
@@ -65,8 +81,11 @@ public class Patient implements PatientInterface {
     this.firstName = other.firstName;
     this.lastName = other.lastName;
     this.dateOfBirth = other.dateOfBirth;
-    this.assignedRoom = other.assignedRoom != null ? new Room((Room) other.assignedRoom) : null;
-    this.visitRecords = new TreeSet<>(other.visitRecords);
+    this.assignedRoom = other.assignedRoom; // Room is immutable, so it can be shared
+    this.visitRows = Arrays.copyOf(other.visitRows, other.visitCount); // rows are immutable
+    this.visitCount = other.visitCount;
+    this.visitStore = other.visitStore;
+    this.hash = other.hash;
   }
   
   @Override
@@ -91,16 +110,17 @@ public class Patient implements PatientInterface {
   
   @Override
   public RoomInterface getAssignedRoom() {
-    if (assignedRoom != null) {
-      return new Room((Room) assignedRoom);
-    } else {
-      return null;
-    }
+    return assignedRoom; // Room is immutable, no need to return a copy
   }
   
   @Override
   public SortedSet<VisitRecordInterface> getVisitRecords() {
-    return new TreeSet<>(visitRecords);
+    VisitStore store = visitStore();
+    SortedSet<VisitRecordInterface> records = new TreeSet<>();
+    for (int i = 0; i < visitCount; i++) {
+      records.add(store.get(visitRows[i]));
+    }
+    return records;
   }
   
   @Override
@@ -109,18 +129,71 @@ public class Patient implements PatientInterface {
   }
   
   @Override
-  public void addVisitRecord(String registrationDateTime, 
+  public VisitRecordInterface addVisitRecord(String registrationDateTime, 
+      String chiefComplaint, double bodyTemperature) {
+    // Validate the fields before storing them
+    return addVisitRecord(new VisitRecord(registrationDateTime, chiefComplaint, bodyTemperature));
+  }
+  
+  @Override
+  public VisitRecordInterface addVisitRecord(LocalDateTime registrationDateTime, 
       String chiefComplaint, double bodyTemperature) {
-    visitRecords.add(
-        new VisitRecord(registrationDateTime, chiefComplaint, bodyTemperature));
+    // Validate the fields before storing them
+    return addVisitRecord(new VisitRecord(registrationDateTime, chiefComplaint, bodyTemperature));
+  }
+  
+  /**
+   * Helper method to store a validated visit record in order of time.
+   * 
+   * @param record the validated visit record
+   * @return the stored visit record, or null if there is already a visit record at that time
+   */
+  private VisitRecordInterface addVisitRecord(VisitRecord record) {
+    VisitStore store = visitStore();
+    long minute = VisitStore.toMinute(record.getRegistrationDateTime());
+    
+    // Binary search for the position by time, at most one visit record at the same time
+    int low = 0;
+    int high = visitCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long m = store.getMinute(visitRows[mid]);
+      if (m < minute) {
+        low = mid + 1;
+      } else if (m > minute) {
+        high = mid - 1;
+      } else {
+        return null;
+      }
+    }
+    int row = store.add(patientId, record.getRegistrationDateTime(), 
+        record.getChiefComplaint(), record.getBodyTemperature());
+    if (visitCount == visitRows.length) {
+      visitRows = Arrays.copyOf(visitRows, Math.max(4, visitCount * 2));
+    }
+    System.arraycopy(visitRows, low, visitRows, low + 1, visitCount - low);
+    visitRows[low] = row;
+    if (visitCount++ == 0) {
+      visitStore = store;
+    }
+    return store.get(row);
+  }
+  
+  /**
+   * Helper method to get the store of the visit records of this patient.
+   * 
+   * @return the store of the first visit record, or the current store if there is none
+   */
+  private VisitStore visitStore() {
+    return visitCount > 0 ? visitStore : VisitStore.getInstance();
   }
   
   @Override
   public String showLastVisitRecord() {
-    if (visitRecords.isEmpty()) {
+    if (visitCount == 0) {
       return "No visit records";
     } else {
-      VisitRecordInterface v = visitRecords.last(); 
+      VisitRecordInterface v = visitStore.get(visitRows[visitCount - 1]); 
       return String.format(
           "Last visit on: %s, Body Temperature: %.1f°C, Chief Complaint: %s",
           v.getRegistrationDateTime().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm")), 
@@ -143,10 +216,10 @@ public class Patient implements PatientInterface {
     StringBuilder result = new StringBuilder();
     result.append(String.format("Patient Name: %s %s, Date Of Birth: %s", firstName, lastName, 
         dateOfBirth.format(DateTimeFormatter.ofPattern("yyyy/MM/dd"))));
-    if (visitRecords.isEmpty()) {
+    if (visitCount == 0) {
       result.append("\n- No visit records");
     } else {
-      for (VisitRecordInterface v : visitRecords) {
+      for (VisitRecordInterface v : getVisitRecords()) {
         result.append(String.format(
             "\n- Visit on: %s, Body Temperature: %.1f°C, Chief Complaint: %s",
             v.getRegistrationDateTime().format(DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm")), 
@@ -156,8 +229,42 @@ public class Patient implements PatientInterface {
     return result.toString();
   }
   
+  /**
+   * Compares to another object for equality.
+   * They are considered equal when they are patients with the same ID.
+   * 
+   * @param o the object to compare with
+   * @return true if the objects are equal, false otherwise
+   */
   @Override
   public boolean equals(Object o) {
+    if (this == o) { 
+      return true;
+    }
+    if (!(o instanceof Patient)) {
+      return false;
+    }
+    return this.patientId == ((Patient) o).patientId;
+  }
+
+  /**
+   * Returns the hash code of the patient ID, which is computed once at creation.
+   * 
+   * @return the hash code for this object
+   */
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+  
+  /**
+   * This is for JUnit testing purpose to compare all the fields of two patients, 
+   * therefore it is not included in the contract defined by PatientInterface.
+   * 
+   * @param o the object to compare with
+   * @return true if all the fields are equal, false otherwise
+   */
+  public boolean deepEquals(Object o) {
     if (this == o) { 
       return true;
     }
@@ -170,12 +277,7 @@ public class Patient implements PatientInterface {
         && Objects.equals(this.lastName, that.lastName)
         && Objects.equals(this.dateOfBirth, that.dateOfBirth)
         && Objects.equals(this.assignedRoom, that.assignedRoom)
-        && Objects.equals(this.visitRecords, that.visitRecords);
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(patientId, firstName, lastName, dateOfBirth, assignedRoom, visitRecords);
+        && Objects.equals(this.getVisitRecords(), that.getVisitRecords());
   }
   
   @Override
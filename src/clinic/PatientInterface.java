@@ -1,6 +1,7 @@
 package clinic;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.SortedSet;
 
 /**
@@ -37,9 +38,10 @@ public interface PatientInterface extends Comparable<PatientInterface> {
   public LocalDate getDateOfBirth();
   
   /**
-   * Retrieves the assigned room of this patient.
+   * Retrieves the assigned room of this patient. 
+   * Rooms are immutable, so the shared room instance is returned rather than a copy.
    * 
-   * @return the assigned room
+   * @return the assigned room, or null if the patient is not in clinic
    */
   public RoomInterface getAssignedRoom();
   
@@ -60,12 +62,26 @@ public interface PatientInterface extends Comparable<PatientInterface> {
   
   /**
    * Add a visit record to this patient. 
+   * A patient has at most one visit record at the same registration date and time.
    * 
    * @param registrationDateTime the date and time of registration (yyyy/MM/dd HH:mm)
    * @param chiefComplaint the patient's chief complaint
    * @param bodyTemperature the patient's body temperature in degrees Celsius
+   * @return the added visit record, or null if there is already a visit record at that time
    */
-  public void addVisitRecord(String registrationDateTime, 
+  public VisitRecordInterface addVisitRecord(String registrationDateTime, 
+      String chiefComplaint, double bodyTemperature);
+  
+  /**
+   * Add a visit record with an already parsed registration date and time to this patient. 
+   * A patient has at most one visit record at the same registration date and time.
+   * 
+   * @param registrationDateTime the date and time of registration, to the minute
+   * @param chiefComplaint the patient's chief complaint
+   * @param bodyTemperature the patient's body temperature in degrees Celsius
+   * @return the added visit record, or null if there is already a visit record at that time
+   */
+  public VisitRecordInterface addVisitRecord(LocalDateTime registrationDateTime, 
       String chiefComplaint, double bodyTemperature);
   
   /** 
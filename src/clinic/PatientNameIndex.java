@@ -0,0 +1,620 @@
+package clinic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class represents a search index over the first and last names of the patients in
+ * {@link Clinic}. Each word of a name is a term of the index, and each patient is numbered
+ * in order of addition. It keeps:
+ * - {@code root}: a prefix trie of the terms, each term node holding the numbers of the
+ *   patients having the term, and each node the number of such entries below it
+ * - {@code terms}: the trie node of each term
+ * - {@code trigramTerms}: the terms containing each trigram, for matching misspelled words
+ * - {@code patients}, {@code patientTerms}: each patient by number, and the terms of its name
+ *
+ * A prefix search walks the patients below the first query word in order, or below the
+ * most selective word if it has far fewer entries, and stops at the limit. A typo-tolerant
+ * search walks only the trie branches within the tolerated edit distance, and the terms
+ * sharing trigrams after the first letter, keeping the most similar terms; it then checks
+ * every patient similar to its most selective word. So its time grows with the number of
+ * those patients: with 1,000,000 patients, a prefix search takes microseconds, but a
+ * misspelled query whose words each match 10,000 patients takes about a millisecond; see
+ * test/benchmark/PatientSearchBenchmark.
+ */
+public class PatientNameIndex {
+  private static final double MIN_SIMILARITY = 0.3;
+  private static final int MAX_SIMILAR_TERMS = 32;
+  private static final int MAX_SORTED_FACTOR = 4;
+
+  private final TrieNode root;
+  private final Map<String, TrieNode> terms;
+  private final Map<String, List<String>> trigramTerms;
+  private final List<PatientInterface> patients;
+  private final List<String[]> patientTerms;
+
+  /**
+   * Constructor of an empty PatientNameIndex.
+   */
+  public PatientNameIndex() {
+    root = new TrieNode();
+    terms = new HashMap<>();
+    trigramTerms = new HashMap<>();
+    patients = new ArrayList<>();
+    patientTerms = new ArrayList<>();
+  }
+
+  /**
+   * Adds a patient to the index under every word of the first and last names.
+   *
+   * @param patient the patient to be added
+   */
+  public void add(PatientInterface patient) {
+    Set<String> words = new LinkedHashSet<>();
+    words.addAll(tokenize(patient.getFirstName()));
+    words.addAll(tokenize(patient.getLastName()));
+    int number = patients.size();
+    String[] names = new String[words.size()];
+    int k = 0;
+    for (String word : words) {
+      TrieNode node = root;
+      node.count++;
+      for (int i = 0; i < word.length(); i++) {
+        node = node.children.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+        node.count++;
+      }
+      if (node.term == null) { // a new term, add it to the trigram index
+        node.term = word;
+        terms.put(word, node);
+        for (String trigram : trigrams(word)) {
+          trigramTerms.computeIfAbsent(trigram, t -> new ArrayList<>()).add(word);
+        }
+      }
+      node.addPatient(number);
+      names[k++] = node.term; // shared with the trie
+    }
+    patients.add(patient);
+    patientTerms.add(names);
+  }
+
+  /**
+   * Searches the patients by name. Patients whose names have a word starting with each
+   * word of the query come first, in alphabetical order of the matched word. If there are
+   * fewer than limit of them, patients with similarly spelled names follow, most similar
+   * first, so that a typo in the query still finds the patient. Patients matching equally
+   * are in order of addition.
+   *
+   * @param query the words to search for, case-insensitive
+   * @param limit the maximum number of patients to return
+   * @return the list of matching patients, at most limit patients
+   */
+  public List<PatientInterface> search(String query, int limit) {
+    List<String> words = tokenize(query);
+    if (words.isEmpty() || limit <= 0) {
+      return new ArrayList<>();
+    }
+    Set<PatientInterface> results = new LinkedHashSet<>();
+    searchPrefix(words, limit, results);
+    if (results.size() < limit) {
+      searchSimilar(words, limit, results);
+    }
+    return new ArrayList<>(results);
+  }
+
+  /**
+   * Removes all patients from the index.
+   */
+  public void clear() {
+    root.children.clear();
+    root.count = 0;
+    terms.clear();
+    trigramTerms.clear();
+    patients.clear();
+    patientTerms.clear();
+  }
+
+  /**
+   * Helper method to collect the patients matching every query word as a prefix, in
+   * alphabetical order of the term matching the first word. If the first word is nearly as
+   * selective as the most selective word, the trie is walked below it in order until the
+   * limit is met; otherwise all the patients below the most selective word are checked and
+   * then sorted.
+   *
+   * @param words the normalized query words
+   * @param limit the maximum number of patients to collect
+   * @param results the collected patients
+   */
+  private void searchPrefix(List<String> words, int limit, Set<PatientInterface> results) {
+    TrieNode driver = null;
+    for (String word : words) {
+      TrieNode node = find(word);
+      if (node == null) {
+        return; // no patient matches this word
+      }
+      if (driver == null || node.count < driver.count) {
+        driver = node;
+      }
+    }
+    TrieNode firstNode = find(words.get(0));
+    if (firstNode.count <= MAX_SORTED_FACTOR * driver.count) {
+      driver = firstNode;
+      // The patients of the other words, sorted for binary search if there are few enough
+      List<String> others = words.subList(1, words.size());
+      List<int[]> otherPatients = new ArrayList<>();
+      for (String word : others) {
+        TrieNode node = find(word);
+        otherPatients.add(node.count <= MAX_SORTED_FACTOR * driver.count ? patientsBelow(node)
+            : null);
+      }
+      Deque<TrieNode> stack = new ArrayDeque<>();
+      stack.push(driver);
+      while (!stack.isEmpty()) {
+        TrieNode n = stack.pop();
+        for (int i = 0; i < n.size; i++) {
+          if (matchesOthers(n.patients[i], others, otherPatients)) {
+            results.add(patients.get(n.patients[i]));
+            if (results.size() >= limit) {
+              return;
+            }
+          }
+        }
+        // Push in reverse order, so that children are popped in alphabetical order
+        for (TrieNode child : n.children.descendingMap().values()) {
+          stack.push(child);
+        }
+      }
+      return;
+    }
+    // Sort the matches by the first term matching the first word, then by number
+    String first = words.get(0);
+    Map<Integer, String> matched = new HashMap<>();
+    Deque<TrieNode> stack = new ArrayDeque<>();
+    stack.push(driver);
+    while (!stack.isEmpty()) {
+      TrieNode n = stack.pop();
+      for (int i = 0; i < n.size; i++) {
+        int number = n.patients[i];
+        String[] names = patientTerms.get(number);
+        if (!matched.containsKey(number) && matchesAllPrefixes(names, words)) {
+          String key = null;
+          for (String name : names) {
+            if (name.startsWith(first) && (key == null || name.compareTo(key) < 0)) {
+              key = name;
+            }
+          }
+          matched.put(number, key);
+        }
+      }
+      for (TrieNode child : n.children.values()) {
+        stack.push(child);
+      }
+    }
+    List<Map.Entry<Integer, String>> ranked = new ArrayList<>(matched.entrySet());
+    ranked.sort(Map.Entry.<Integer, String>comparingByValue()
+        .thenComparing(Map.Entry.comparingByKey()));
+    for (Map.Entry<Integer, String> e : ranked) {
+      if (results.size() >= limit) {
+        break;
+      }
+      results.add(patients.get(e.getKey()));
+    }
+  }
+
+  /**
+   * Helper method to check if a patient matches each of the other query words, by binary
+   * search in the sorted patients of the word, or else by the terms of the patient.
+   *
+   * @param number the number of the patient
+   * @param others the other normalized query words
+   * @param otherPatients the sorted patients matching each other word, or null
+   * @return true if all the other words are matched, false if not
+   */
+  private boolean matchesOthers(int number, List<String> others, List<int[]> otherPatients) {
+    for (int w = 0; w < others.size(); w++) {
+      int[] sorted = otherPatients.get(w);
+      boolean matched = sorted != null ? Arrays.binarySearch(sorted, number) >= 0
+          : matchesAllPrefixes(patientTerms.get(number), others.subList(w, w + 1));
+      if (!matched) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Helper method to collect the patients of all the terms below a trie node.
+   *
+   * @param node the trie node
+   * @return the numbers of the patients, sorted and without duplicates
+   */
+  private static int[] patientsBelow(TrieNode node) {
+    if (node.children.isEmpty()) {
+      return Arrays.copyOf(node.patients, node.size); // already sorted
+    }
+    int[] numbers = new int[node.count];
+    int size = 0;
+    Deque<TrieNode> stack = new ArrayDeque<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      TrieNode n = stack.pop();
+      System.arraycopy(n.patients, 0, numbers, size, n.size);
+      size += n.size;
+      for (TrieNode child : n.children.values()) {
+        stack.push(child);
+      }
+    }
+    Arrays.sort(numbers);
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || numbers[i] != numbers[unique - 1]) {
+        numbers[unique++] = numbers[i];
+      }
+    }
+    return Arrays.copyOf(numbers, unique);
+  }
+
+  /**
+   * Helper method to add the patients whose names are similar to every query word,
+   * ranked by the total similarity of the query words. The patients of the similar terms
+   * of the word with the fewest such patients are merged in order of number, and each is
+   * then checked against the similar terms of the other words, so the time is linear in
+   * the number of patients similar to the most selective word.
+   *
+   * @param words the normalized query words
+   * @param limit the maximum number of patients in the results
+   * @param results the collected patients
+   */
+  private void searchSimilar(List<String> words, int limit, Set<PatientInterface> results) {
+    List<Map<String, Double>> similar = new ArrayList<>();
+    int driverIndex = -1;
+    long driverSize = Long.MAX_VALUE;
+    for (int w = 0; w < words.size(); w++) {
+      Map<String, Double> wordSimilar = similarTerms(words.get(w));
+      if (wordSimilar.isEmpty()) {
+        return; // every word must be matched
+      }
+      long size = 0;
+      for (String term : wordSimilar.keySet()) {
+        size += terms.get(term).size;
+      }
+      if (size < driverSize) {
+        driverSize = size;
+        driverIndex = w;
+      }
+      similar.add(wordSimilar);
+    }
+    List<Matches> termMatches = new ArrayList<>();
+    for (Map.Entry<String, Double> e : similar.get(driverIndex).entrySet()) {
+      TrieNode node = terms.get(e.getKey());
+      double[] scores = new double[node.size];
+      Arrays.fill(scores, e.getValue());
+      termMatches.add(new Matches(Arrays.copyOf(node.patients, node.size), scores, node.size));
+    }
+    // Merge the similar terms two by two, keeping the best similarity of each patient
+    while (termMatches.size() > 1) {
+      List<Matches> merged = new ArrayList<>();
+      for (int i = 0; i + 1 < termMatches.size(); i += 2) {
+        merged.add(termMatches.get(i).union(termMatches.get(i + 1)));
+      }
+      if (termMatches.size() % 2 == 1) {
+        merged.add(termMatches.get(termMatches.size() - 1));
+      }
+      termMatches = merged;
+    }
+    // Add the best similarity of each other word, dropping the patients missing one
+    Matches driver = termMatches.get(0);
+    int[] numbers = new int[driver.size];
+    double[] scores = new double[driver.size];
+    int size = 0;
+    for (int i = 0; i < driver.size; i++) {
+      String[] names = patientTerms.get(driver.numbers[i]);
+      double score = driver.scores[i];
+      for (int w = 0; w < words.size() && score >= 0; w++) {
+        if (w != driverIndex) {
+          double best = -1;
+          for (String name : names) {
+            best = Math.max(best, similar.get(w).getOrDefault(name, -1.0));
+          }
+          score = best < 0 ? -1 : score + best;
+        }
+      }
+      if (score >= 0) {
+        numbers[size] = driver.numbers[i];
+        scores[size++] = score;
+      }
+    }
+    Matches matches = new Matches(numbers, scores, size);
+    // Keep the limit best matches by insertion, most similar first, then in order of addition
+    int[] best = new int[Math.min(limit, matches.size)];
+    int count = 0;
+    for (int i = 0; i < matches.size; i++) {
+      int position = count;
+      while (position > 0 && matches.scores[i] > matches.scores[best[position - 1]]) {
+        position--;
+      }
+      if (position < best.length) {
+        System.arraycopy(best, position, best, position + 1,
+            Math.min(count, best.length - 1) - position);
+        best[position] = i;
+        count = Math.min(count + 1, best.length);
+      }
+    }
+    for (int i = 0; i < count && results.size() < limit; i++) {
+      results.add(patients.get(matches.numbers[best[i]]));
+    }
+  }
+
+  /**
+   * Helper method to find the terms similar to a word, at most {@code MAX_SIMILAR_TERMS}
+   * of the most similar. A term is similar if it is within a small edit distance of the
+   * word, which catches typos in short names such as "jhon" for "john", or if the Jaccard
+   * index of the two trigram sets is high enough. The first kind is found by walking only
+   * the trie branches within the edit distance, the second among the terms in the shortest
+   * trigram lists of the word that any term similar enough must appear in.
+   *
+   * @param word the normalized query word
+   * @return the similar terms with their similarity to the word, at least MIN_SIMILARITY
+   */
+  private Map<String, Double> similarTerms(String word) {
+    Map<String, Double> similar = new HashMap<>();
+    int[] firstRow = new int[word.length() + 1];
+    for (int j = 0; j <= word.length(); j++) {
+      firstRow[j] = j;
+    }
+    for (Map.Entry<Character, TrieNode> e : root.children.entrySet()) {
+      walkWithinEdits(e.getValue(), e.getKey(), (char) 0, null, firstRow, word, similar);
+    }
+
+    // A term similar enough shares at least minShared trigrams with the word, so it is in
+    // one of the shortest lists of all but minShared - 1 of the trigrams of the word
+    Set<String> wordTrigrams = trigrams(word);
+    int minShared = (int) Math.ceil(MIN_SIMILARITY * wordTrigrams.size());
+    List<List<String>> lists = new ArrayList<>();
+    for (String trigram : wordTrigrams) {
+      lists.add(trigramTerms.getOrDefault(trigram, Collections.emptyList()));
+    }
+    lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+    Set<String> candidates = new HashSet<>();
+    for (List<String> list : lists.subList(0, lists.size() - minShared + 1)) {
+      candidates.addAll(list);
+    }
+    String[] shared = wordTrigrams.toArray(new String[0]);
+    for (String term : candidates) {
+      // Count the distinct trigrams of the padded term and those of the word among them
+      String padded = " " + term + " ";
+      int termCount = 0;
+      int common = 0;
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        boolean repeated = false;
+        for (int j = 0; j < i && !repeated; j++) {
+          repeated = padded.regionMatches(j, padded, i, 3);
+        }
+        if (!repeated) {
+          termCount++;
+          for (String trigram : shared) {
+            if (padded.regionMatches(i, trigram, 0, 3)) {
+              common++;
+              break;
+            }
+          }
+        }
+      }
+      double similarity = (double) common / (shared.length + termCount - common);
+      if (similarity >= MIN_SIMILARITY) {
+        similar.merge(term, similarity, Math::max);
+      }
+    }
+
+    if (similar.size() <= MAX_SIMILAR_TERMS) {
+      return similar;
+    }
+    List<Map.Entry<String, Double>> ranked = new ArrayList<>(similar.entrySet());
+    ranked.sort((a, b) -> {
+      int c = Double.compare(b.getValue(), a.getValue());
+      return c != 0 ? c : a.getKey().compareTo(b.getKey());
+    });
+    Map<String, Double> best = new LinkedHashMap<>();
+    for (Map.Entry<String, Double> e : ranked.subList(0, MAX_SIMILAR_TERMS)) {
+      best.put(e.getKey(), e.getValue());
+    }
+    return best;
+  }
+
+  /**
+   * Helper method to walk the trie below a node with one row of the edit distance table
+   * per character, counting insertions, deletions, substitutions and transpositions of
+   * adjacent characters, and to collect the terms within the tolerated distance. A branch
+   * is left as soon as every prefix of the word is too far from it.
+   *
+   * @param node the trie node reached by the character
+   * @param c the character of the node
+   * @param previousChar the character of the parent node, or 0 at the first character
+   * @param grandparentRow the row of the grandparent node, or null at the first character
+   * @param parentRow the row of the parent node
+   * @param word the normalized query word
+   * @param similar the similar terms found, with their similarity
+   */
+  private static void walkWithinEdits(TrieNode node, char c, char previousChar,
+      int[] grandparentRow, int[] parentRow, String word, Map<String, Double> similar) {
+    int maxEdits = maxEdits(word);
+    int[] row = new int[parentRow.length];
+    row[0] = parentRow[0] + 1;
+    int min = row[0];
+    for (int j = 1; j < row.length; j++) {
+      int cost = word.charAt(j - 1) == c ? 0 : 1;
+      row[j] = Math.min(Math.min(parentRow[j] + 1, row[j - 1] + 1), parentRow[j - 1] + cost);
+      if (grandparentRow != null && j > 1 && word.charAt(j - 1) == previousChar
+          && word.charAt(j - 2) == c) {
+        row[j] = Math.min(row[j], grandparentRow[j - 2] + 1);
+      }
+      min = Math.min(min, row[j]);
+    }
+    int distance = row[word.length()];
+    if (node.term != null && distance <= maxEdits) {
+      double similarity = 1.0 - (double) distance / Math.max(word.length(), node.term.length());
+      if (similarity >= MIN_SIMILARITY) {
+        similar.merge(node.term, similarity, Math::max);
+      }
+    }
+    if (min <= maxEdits) {
+      for (Map.Entry<Character, TrieNode> e : node.children.entrySet()) {
+        walkWithinEdits(e.getValue(), e.getKey(), c, parentRow, row, word, similar);
+      }
+    }
+  }
+
+  /**
+   * Helper method to get the number of typos tolerated in a query word.
+   *
+   * @param word the normalized query word
+   * @return the maximum edit distance, 1 for words up to 5 characters and 2 for longer words
+   */
+  private static int maxEdits(String word) {
+    return word.length() <= 5 ? 1 : 2;
+  }
+
+  /**
+   * Helper method to find the trie node of a prefix.
+   *
+   * @param prefix the normalized prefix
+   * @return the node, or null if no term starts with the prefix
+   */
+  private TrieNode find(String prefix) {
+    TrieNode node = root;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.children.get(prefix.charAt(i));
+    }
+    return node;
+  }
+
+  /**
+   * Helper method to check if every query word is a prefix of a term of a patient.
+   *
+   * @param names the terms of the patient
+   * @param words the normalized query words
+   * @return true if all query words are matched, false if not
+   */
+  private static boolean matchesAllPrefixes(String[] names, List<String> words) {
+    for (String word : words) {
+      boolean matched = false;
+      for (String name : names) {
+        if (name.startsWith(word)) {
+          matched = true;
+          break;
+        }
+      }
+      if (!matched) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Helper method to split a name or query into lower-case words.
+   *
+   * @param text the text to split, can be null
+   * @return the list of words
+   */
+  private static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    if (text != null) {
+      for (String w : text.toLowerCase(Locale.ROOT).split("[\\s,]+")) {
+        if (!w.isEmpty()) {
+          words.add(w);
+        }
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Helper method to get the trigrams of a word, padded with one space on each side so
+   * that word starts and ends are weighted as well. There is no trigram of the first
+   * letter alone, which would make every term with the same first letter a candidate.
+   *
+   * @param word the word
+   * @return the set of trigrams
+   */
+  private static Set<String> trigrams(String word) {
+    String padded = " " + word + " ";
+    Set<String> result = new HashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      result.add(padded.substring(i, i + 3));
+    }
+    return result;
+  }
+
+  /**
+   * The patients matching a query, sorted by number, each with the similarity of its name.
+   */
+  private static class Matches {
+    private final int[] numbers;
+    private final double[] scores;
+    private final int size;
+
+    private Matches(int[] numbers, double[] scores, int size) {
+      this.numbers = numbers;
+      this.scores = scores;
+      this.size = size;
+    }
+
+    /**
+     * Merges with the matches of another term of the same word, keeping the best similarity.
+     *
+     * @param other the other matches
+     * @return the patients in either matches
+     */
+    private Matches union(Matches other) {
+      int[] n = new int[size + other.size];
+      double[] s = new double[size + other.size];
+      int i = 0;
+      int j = 0;
+      int k = 0;
+      while (i < size || j < other.size) {
+        if (j == other.size || (i < size && numbers[i] < other.numbers[j])) {
+          n[k] = numbers[i];
+          s[k++] = scores[i++];
+        } else if (i == size || numbers[i] > other.numbers[j]) {
+          n[k] = other.numbers[j];
+          s[k++] = other.scores[j++];
+        } else {
+          n[k] = numbers[i];
+          s[k++] = Math.max(scores[i++], other.scores[j++]);
+        }
+      }
+      return new Matches(n, s, k);
+    }
+  }
+
+  /**
+   * A node of the prefix trie, with children ordered by character. A term node holds the
+   * numbers of the patients having the term, in increasing order.
+   */
+  private static class TrieNode {
+    private final TreeMap<Character, TrieNode> children = new TreeMap<>();
+    private String term;
+    private int[] patients = new int[0];
+    private int size;
+    private int count; // the patients held by this node and the nodes below it
+
+    private void addPatient(int number) {
+      if (size == patients.length) {
+        patients = Arrays.copyOf(patients, Math.max(4, size * 2));
+      }
+      patients[size++] = number;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+package clinic;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * This class represents an immutable sorted set backed by a persistent AVL tree.
+ * Adding or removing an element with {@link #plus(Object)} or {@link #minus(Object)}
+ * returns a new set in O(log n), which shares all untouched tree nodes with this set.
+ * Since a set never changes after creation, it can be handed out without a copy.
+ *
+ * All the mutators inherited from {@link SortedSet} throw UnsupportedOperationException.
+ *
+ * @param <E> the type of the elements in the set
+ */
+public final class PersistentSortedSet<E> extends AbstractSet<E> implements SortedSet<E> {
+
+  private final Comparator<? super E> comparator;
+  private final Node<E> root;
+
+  /**
+   * Hidden constructor of PersistentSortedSet. Use {@link #empty()} or
+   * {@link #empty(Comparator)} to start a new set.
+   *
+   * @param comparator the comparator ordering the elements, or null for natural ordering
+   * @param root the root node of the tree, or null for an empty set
+   */
+  private PersistentSortedSet(Comparator<? super E> comparator, Node<E> root) {
+    this.comparator = comparator;
+    this.root = root;
+  }
+
+  /**
+   * Creates an empty set ordered by the natural ordering of its elements.
+   *
+   * @param <E> the type of the elements in the set
+   * @return an empty set
+   */
+  public static <E extends Comparable<? super E>> PersistentSortedSet<E> empty() {
+    return new PersistentSortedSet<>(null, null);
+  }
+
+  /**
+   * Creates an empty set ordered by the specified comparator.
+   *
+   * @param <E> the type of the elements in the set
+   * @param comparator the comparator ordering the elements
+   * @return an empty set
+   */
+  public static <E> PersistentSortedSet<E> empty(Comparator<? super E> comparator) {
+    return new PersistentSortedSet<>(comparator, null);
+  }
+
+  /**
+   * Returns a set with the specified element added. This set is left unchanged.
+   *
+   * @param element the element to be added
+   * @return a set containing the element, or this set if it already contains it
+   */
+  public PersistentSortedSet<E> plus(E element) {
+    if (element == null) {
+      throw new NullPointerException("Cannot add null to the set.");
+    }
+    Node<E> newRoot = insert(root, element);
+    return newRoot == root ? this : new PersistentSortedSet<>(comparator, newRoot);
+  }
+
+  /**
+   * Returns a set with the specified element removed. This set is left unchanged.
+   *
+   * @param element the element to be removed
+   * @return a set without the element, or this set if it does not contain it
+   */
+  public PersistentSortedSet<E> minus(E element) {
+    if (element == null) {
+      return this;
+    }
+    Node<E> newRoot = delete(root, element);
+    return newRoot == root ? this : new PersistentSortedSet<>(comparator, newRoot);
+  }
+
+  @Override
+  public int size() {
+    return root == null ? 0 : root.size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean contains(Object o) {
+    if (o == null) {
+      return false;
+    }
+    E element = (E) o;
+    Node<E> n = root;
+    while (n != null) {
+      int c = compare(element, n.value);
+      if (c == 0) {
+        return true;
+      }
+      n = c < 0 ? n.left : n.right;
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+      {
+        pushLeft(root);
+      }
+
+      @Override
+      public boolean hasNext() {
+        return !stack.isEmpty();
+      }
+
+      @Override
+      public E next() {
+        if (stack.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<E> n = stack.pop();
+        pushLeft(n.right);
+        return n.value;
+      }
+
+      private void pushLeft(Node<E> n) {
+        for (; n != null; n = n.left) {
+          stack.push(n);
+        }
+      }
+    };
+  }
+
+  @Override
+  public Comparator<? super E> comparator() {
+    return comparator;
+  }
+
+  @Override
+  public E first() {
+    if (root == null) {
+      throw new NoSuchElementException();
+    }
+    Node<E> n = root;
+    while (n.left != null) {
+      n = n.left;
+    }
+    return n.value;
+  }
+
+  @Override
+  public E last() {
+    if (root == null) {
+      throw new NoSuchElementException();
+    }
+    Node<E> n = root;
+    while (n.right != null) {
+      n = n.right;
+    }
+    return n.value;
+  }
+
+  /**
+   * Returns the elements ranging from fromElement (inclusive) to toElement (exclusive).
+   * Unlike TreeSet, the result is a new immutable set rather than a live view.
+   */
+  @Override
+  public SortedSet<E> subSet(E fromElement, E toElement) {
+    if (compare(fromElement, toElement) > 0) {
+      throw new IllegalArgumentException("fromElement > toElement");
+    }
+    return range(fromElement, toElement);
+  }
+
+  /**
+   * Returns the elements strictly less than toElement.
+   * Unlike TreeSet, the result is a new immutable set rather than a live view.
+   */
+  @Override
+  public SortedSet<E> headSet(E toElement) {
+    return range(null, toElement);
+  }
+
+  /**
+   * Returns the elements greater than or equal to fromElement.
+   * Unlike TreeSet, the result is a new immutable set rather than a live view.
+   */
+  @Override
+  public SortedSet<E> tailSet(E fromElement) {
+    return range(fromElement, null);
+  }
+
+  /**
+   * Helper method to collect the elements in a range into a new set.
+   *
+   * @param from the lower bound (inclusive), or null if unbounded
+   * @param to the upper bound (exclusive), or null if unbounded
+   * @return the set of elements in the range
+   */
+  private PersistentSortedSet<E> range(E from, E to) {
+    PersistentSortedSet<E> result = new PersistentSortedSet<>(comparator, null);
+    for (E e : this) {
+      if (to != null && compare(e, to) >= 0) {
+        break;
+      }
+      if (from == null || compare(e, from) >= 0) {
+        result = result.plus(e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Helper method to compare two elements with the comparator or the natural ordering.
+   *
+   * @param a the first element
+   * @param b the second element
+   * @return a negative integer, zero, or a positive integer as a is less than, equal to,
+   *     or greater than b
+   */
+  @SuppressWarnings("unchecked")
+  private int compare(E a, E b) {
+    return comparator == null
+        ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+  }
+
+  /**
+   * Helper method to insert an element into a subtree, copying only the nodes on the path.
+   *
+   * @param n the root of the subtree
+   * @param element the element to be inserted
+   * @return the root of the new subtree, or n itself if the element is already present
+   */
+  private Node<E> insert(Node<E> n, E element) {
+    if (n == null) {
+      return new Node<>(element, null, null);
+    }
+    int c = compare(element, n.value);
+    if (c < 0) {
+      Node<E> left = insert(n.left, element);
+      return left == n.left ? n : balance(n.value, left, n.right);
+    } else if (c > 0) {
+      Node<E> right = insert(n.right, element);
+      return right == n.right ? n : balance(n.value, n.left, right);
+    }
+    return n;
+  }
+
+  /**
+   * Helper method to delete an element from a subtree, copying only the nodes on the path.
+   *
+   * @param n the root of the subtree
+   * @param element the element to be deleted
+   * @return the root of the new subtree, or n itself if the element is not present
+   */
+  private Node<E> delete(Node<E> n, E element) {
+    if (n == null) {
+      return null;
+    }
+    int c = compare(element, n.value);
+    if (c < 0) {
+      Node<E> left = delete(n.left, element);
+      return left == n.left ? n : balance(n.value, left, n.right);
+    } else if (c > 0) {
+      Node<E> right = delete(n.right, element);
+      return right == n.right ? n : balance(n.value, n.left, right);
+    }
+    if (n.left == null) {
+      return n.right;
+    }
+    if (n.right == null) {
+      return n.left;
+    }
+    Node<E> successor = n.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.value, n.left, deleteMin(n.right));
+  }
+
+  /**
+   * Helper method to delete the smallest element from a non-empty subtree.
+   *
+   * @param n the root of the subtree
+   * @return the root of the new subtree
+   */
+  private static <E> Node<E> deleteMin(Node<E> n) {
+    if (n.left == null) {
+      return n.right;
+    }
+    return balance(n.value, deleteMin(n.left), n.right);
+  }
+
+  /**
+   * Helper method to build a node and restore the AVL balance with rotations if needed.
+   *
+   * @param value the value of the node
+   * @param left the left subtree
+   * @param right the right subtree
+   * @return the root of the balanced subtree
+   */
+  private static <E> Node<E> balance(E value, Node<E> left, Node<E> right) {
+    int hl = height(left);
+    int hr = height(right);
+    if (hl > hr + 1) {
+      if (height(left.left) >= height(left.right)) { // single right rotation
+        return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+      }
+      Node<E> lr = left.right; // left-right double rotation
+      return new Node<>(lr.value,
+          new Node<>(left.value, left.left, lr.left), new Node<>(value, lr.right, right));
+    }
+    if (hr > hl + 1) {
+      if (height(right.right) >= height(right.left)) { // single left rotation
+        return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+      }
+      Node<E> rl = right.left; // right-left double rotation
+      return new Node<>(rl.value,
+          new Node<>(value, left, rl.left), new Node<>(right.value, rl.right, right.right));
+    }
+    return new Node<>(value, left, right);
+  }
+
+  /**
+   * Helper method to get the height of a subtree.
+   *
+   * @param n the root of the subtree
+   * @return the height, 0 for an empty subtree
+   */
+  private static int height(Node<?> n) {
+    return n == null ? 0 : n.height;
+  }
+
+  /**
+   * An immutable tree node, which may be shared by many sets.
+   */
+  private static final class Node<E> {
+    private final E value;
+    private final Node<E> left;
+    private final Node<E> right;
+    private final int height;
+    private final int size;
+
+    private Node(E value, Node<E> left, Node<E> right) {
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+    }
+  }
+}
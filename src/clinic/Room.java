@@ -6,6 +6,9 @@ import java.util.Objects;
 /**
  * This class represents the rooms in the clinic. It is defined with the coordinates of the 
  * lower-left and upper-right corners, its name, and its room type.
+ * 
+ * This class is immutable, so a single instance of each room can be shared by all patients 
+ * assigned to it.
  */
 public class Room implements RoomInterface {
   private static int lastNumberAssigned = 0;
@@ -17,6 +20,7 @@ public class Room implements RoomInterface {
   private final int top; // upper-right y coordinates
   private final String roomName;
   private final RoomType roomType;
+  private final int hash;
 
   /**
    * Constructor which initialize all the fields. 
@@ -50,6 +54,7 @@ public class Room implements RoomInterface {
     this.top = top;
     this.roomType = RoomType.valueOf(roomType.toUpperCase());
     this.roomName = roomName;
+    this.hash = Objects.hash(left, bottom, right, top, this.roomType, roomName, roomId);
   }
   
   /**
@@ -68,6 +73,7 @@ public class Room implements RoomInterface {
     this.roomType = other.roomType;
     this.roomName = other.roomName;
     this.roomId = other.roomId;
+    this.hash = other.hash;
   }
 
   @Override
@@ -130,7 +136,7 @@ public class Room implements RoomInterface {
 
   @Override
   public int hashCode() {
-    return Objects.hash(left, bottom, right, top, roomType, roomName, roomId);
+    return hash; // Room is immutable, computed once at creation
   }
   
   /**
@@ -0,0 +1,208 @@
+package clinic;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * This class checks a floor plan for overlapping rooms with a sweep line, instead of
+ * checking every room against every other room. The rooms are closed rectangles, so rooms
+ * sharing an edge or a corner overlap, as in {@link #intersects}.
+ * It keeps the rectangles in the order they were added, in {@code lefts}, {@code bottoms},
+ * {@code rights} and {@code tops}.
+ *
+ * The sweep moves along x through the rectangles sorted by their left edges, keeping the
+ * y intervals of the rectangles crossing the sweep line in a sorted map. As long as no
+ * overlap is found, these intervals are disjoint, so a new interval only needs to be
+ * compared with the interval just below its top, and a layout is checked in O(n log n).
+ */
+public class RoomOverlapChecker {
+  private int[] lefts;
+  private int[] bottoms;
+  private int[] rights;
+  private int[] tops;
+  private int size;
+
+  /**
+   * Constructor of a RoomOverlapChecker without rectangles.
+   */
+  public RoomOverlapChecker() {
+    lefts = new int[16];
+    bottoms = new int[16];
+    rights = new int[16];
+    tops = new int[16];
+  }
+
+  /**
+   * Adds a rectangle after the rectangles already added.
+   *
+   * @param left the lower-left corner x coordinate
+   * @param bottom the lower-left corner y coordinate
+   * @param right the upper-right corner x coordinate
+   * @param top the upper-right corner y coordinate
+   */
+  public void add(int left, int bottom, int right, int top) {
+    if (size == lefts.length) {
+      lefts = Arrays.copyOf(lefts, size * 2);
+      bottoms = Arrays.copyOf(bottoms, size * 2);
+      rights = Arrays.copyOf(rights, size * 2);
+      tops = Arrays.copyOf(tops, size * 2);
+    }
+    lefts[size] = left;
+    bottoms[size] = bottom;
+    rights[size] = right;
+    tops[size] = top;
+    size++;
+  }
+
+  /**
+   * Gets the number of rectangles added.
+   *
+   * @return the number of rectangles
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the coordinates of a rectangle.
+   *
+   * @param i the index of the rectangle, in the order added
+   * @return the coordinates as [left, bottom, right, top]
+   * @throws IndexOutOfBoundsException if no rectangle was added at the index
+   */
+  public int[] get(int i) {
+    Objects.checkIndex(i, size);
+    return new int[] {lefts[i], bottoms[i], rights[i], tops[i]};
+  }
+
+  /**
+   * Finds the first rectangle overlapping a rectangle added before it, which is the
+   * rectangle a check of each new rectangle against the previous ones would reject.
+   * A rectangle with the left edge after the right edge, or the bottom edge above the top
+   * edge, is still compared with the rectangles before it, but the check stops there, since
+   * it is then rejected as an invalid room. The rectangles after it are not checked.
+   * A layout without overlap takes a single sweep; otherwise the first overlapping
+   * rectangle is found by binary search over the number of rectangles swept.
+   *
+   * @return the index of the first overlapping rectangle, or -1 if none overlap
+   */
+  public int firstOverlap() {
+    int count = 0; // the rectangles before the first one with edges out of order
+    while (count < size && lefts[count] <= rights[count] && bottoms[count] <= tops[count]) {
+      count++;
+    }
+    int[] byLeft = sortedIndices(lefts);
+    int[] byRight = sortedIndices(rights);
+    if (!overlaps(byLeft, byRight, count)) {
+      return count < size && overlapsBefore(count) ? count : -1;
+    }
+    // The smallest number of rectangles that overlap, the last one is the first overlapping
+    int low = 2;
+    int high = count;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (overlaps(byLeft, byRight, mid)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low - 1;
+  }
+
+  /**
+   * Checks if two closed rectangles intersect, including rectangles touching each other.
+   *
+   * @param left1 the lower-left corner x coordinate of the first rectangle
+   * @param bottom1 the lower-left corner y coordinate of the first rectangle
+   * @param right1 the upper-right corner x coordinate of the first rectangle
+   * @param top1 the upper-right corner y coordinate of the first rectangle
+   * @param left2 the lower-left corner x coordinate of the second rectangle
+   * @param bottom2 the lower-left corner y coordinate of the second rectangle
+   * @param right2 the upper-right corner x coordinate of the second rectangle
+   * @param top2 the upper-right corner y coordinate of the second rectangle
+   * @return true if two rectangles intersect, false if not
+   */
+  public static boolean intersects(
+      int left1, int bottom1, int right1, int top1,
+      int left2, int bottom2, int right2, int top2) {
+    // Check for horizontal overlap
+    if (right1 < left2 || right2 < left1) {
+      return false;
+    }
+    // Check for vertical overlap
+    if (top1 < bottom2 || top2 < bottom1) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Helper method to compare a rectangle with each rectangle before it.
+   *
+   * @param i the index of the rectangle
+   * @return true if the rectangle intersects a rectangle before it, false if not
+   */
+  private boolean overlapsBefore(int i) {
+    for (int j = 0; j < i; j++) {
+      if (intersects(lefts[i], bottoms[i], rights[i], tops[i],
+          lefts[j], bottoms[j], rights[j], tops[j])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Helper method to sweep the first rectangles for an overlap, which all have their edges
+   * in order.
+   *
+   * @param byLeft the indices of the rectangles sorted by left edge
+   * @param byRight the indices of the rectangles sorted by right edge
+   * @param count the number of rectangles to sweep, from the first one added
+   * @return true if two of the rectangles overlap, false if not
+   */
+  private boolean overlaps(int[] byLeft, int[] byRight, int count) {
+    TreeMap<Integer, Integer> active = new TreeMap<>(); // bottom to index, disjoint intervals
+    int leaving = 0;
+    for (int i : byLeft) {
+      if (i >= count) {
+        continue;
+      }
+      // Rectangles ending before this one starts leave the sweep line, touching ones stay
+      for (; leaving < size && rights[byRight[leaving]] < lefts[i]; leaving++) {
+        int j = byRight[leaving];
+        if (j < count) {
+          active.remove(bottoms[j]);
+        }
+      }
+      Map.Entry<Integer, Integer> below = active.floorEntry(tops[i]);
+      if (below != null && tops[below.getValue()] >= bottoms[i]) {
+        return true;
+      }
+      active.put(bottoms[i], i);
+    }
+    return false;
+  }
+
+  /**
+   * Helper method to sort the indices of the rectangles by a coordinate.
+   *
+   * @param coordinates the coordinate of each rectangle
+   * @return the indices in increasing order of the coordinate
+   */
+  private int[] sortedIndices(int[] coordinates) {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = (long) coordinates[i] << 32 | i;
+    }
+    Arrays.sort(keys);
+    int[] indices = new int[size];
+    for (int i = 0; i < size; i++) {
+      indices[i] = (int) keys[i];
+    }
+    return indices;
+  }
+}
@@ -9,7 +9,6 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
@@ -45,7 +44,6 @@ public class SeatingMap {
    */
   public static void drawMap(ClinicInterface clinic) {
     List<RoomInterface> rooms = clinic.getRooms();
-    List<PatientInterface> patients = clinic.getPatients();
     
     // Find the minimum and maximum x and y coordinates
     int minX = Integer.MAX_VALUE;
@@ -72,7 +70,7 @@ public class SeatingMap {
     
     // Draw rooms
     for (RoomInterface room : rooms) {
-      drawRoom(g, scale, room, patients);
+      drawRoom(g, scale, room, clinic.getPatientsInRoom(room));
     }
     g.dispose();
     
@@ -128,10 +126,10 @@ public class SeatingMap {
    * @param g the graphics object from BufferedImage
    * @param scale the proper scale based on user-defined coordinates and PROPER_IMAGE_WIDTH
    * @param room the target room
-   * @param patients the list of patients in clinic
+   * @param patientsInRoom the list of patients in the target room
    */
   private static void drawRoom(
-      Graphics2D g, int scale, RoomInterface room, List<PatientInterface> patients) {
+      Graphics2D g, int scale, RoomInterface room, List<PatientInterface> patientsInRoom) {
     
     int left = room.getPosition()[0] * scale;
     int bottom = room.getPosition()[1] * scale;
@@ -146,7 +144,7 @@ public class SeatingMap {
     drawRoomName(g, room, left, bottom, right, top, textX, textY);
     textY += (FONT_SIZE_TITLE + 5);
     drawRoomType(g, room, left, bottom, right, top, textX, textY);
-    drawPatientsInRoom(g, room, patients, left, bottom, right, top, textX, textY);
+    drawPatientsInRoom(g, room, patientsInRoom, left, bottom, right, top, textX, textY);
   }
   
   /**
@@ -242,7 +240,7 @@ public class SeatingMap {
    * 
    * @param g the graphics object from BufferedImage
    * @param room the target room
-   * @param patients the list of patients in clinic
+   * @param patientsInRoom the list of patients in the target room
    * @param left the left coordinate of the room
    * @param bottom the bottom coordinate of the room
    * @param right the right coordinate of the room
@@ -251,10 +249,8 @@ public class SeatingMap {
    * @param textY the y coordinate of the text
    */
   private static void drawPatientsInRoom(Graphics2D g, 
-      RoomInterface room, List<PatientInterface> patients, 
+      RoomInterface room, List<PatientInterface> patientsInRoom, 
       int left, int bottom, int right, int top, int textX, int textY) {
-    List<PatientInterface> patientsInRoom = patients.stream()
-        .filter(p -> room.equals(p.getAssignedRoom())).collect(Collectors.toList());
     int patientsCount = patientsInRoom.size();
     g.setColor(PATIENT_TEXT_COLOR); 
     if (patientsCount == 0) {
@@ -0,0 +1,442 @@
+package clinic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * This class splits a clinic specification into lines and the lines into tokens separated
+ * by whitespace or commas, like {@code line.split("[\\s,]+")}, without regular expressions.
+ * The source is read in blocks into a char buffer, and the current line is copied into a
+ * reusable line buffer, so reading a line allocates nothing. Numbers and dates are parsed
+ * directly from the line buffer, and Strings are only created for text tokens. It keeps:
+ * - {@code buffer}, {@code position}, {@code limit}: the block read from the source and
+ *   the next char to read in it
+ * - {@code line}, {@code length}: the current line, without its line terminator
+ * - {@code cursor}: the position of the next token in the current line
+ * - {@code lineNumber}: the number of the current line, from 1
+ *
+ * Subclasses may read the lines from another kind of source by overriding
+ * {@link #nextLine()} and filling the line buffer with {@link #lineBuffer(int)} and
+ * {@link #startLine(int)}, such as {@link MappedSpecTokenizer}.
+ */
+public class SpecTokenizer implements Closeable {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000};
+  private static final double[] DOUBLE_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private final Reader source;
+  private final char[] buffer;
+  private int position;
+  private int limit;
+  private boolean skipLineFeed; // the last line ended with \r, so a following \n is skipped
+  private char[] line;
+  private int length;
+  private int cursor;
+  private int lineNumber;
+
+  /**
+   * Constructor of a SpecTokenizer before the first line of a source.
+   *
+   * @param source the source of the specification
+   */
+  public SpecTokenizer(Reader source) {
+    this.source = source;
+    buffer = new char[BUFFER_SIZE];
+    line = new char[128];
+  }
+
+  /**
+   * Constructor of a SpecTokenizer for a subclass reading lines from its own source.
+   */
+  protected SpecTokenizer() {
+    source = null;
+    buffer = null;
+    line = new char[128];
+  }
+
+  /**
+   * Advances to the next line. A line ends with \n, \r or \r\n, like in
+   * {@link java.io.BufferedReader#readLine()}.
+   *
+   * @return true if there is a next line, false at the end of the source
+   * @throws IOException if the source cannot be read
+   */
+  public boolean nextLine() throws IOException {
+    length = 0;
+    cursor = 0;
+    while (true) {
+      if (position == limit) {
+        limit = source.read(buffer, 0, BUFFER_SIZE);
+        position = 0;
+        if (limit <= 0) { // end of source
+          limit = 0;
+          if (length > 0) {
+            lineNumber++;
+            return true;
+          }
+          return false;
+        }
+      }
+      char c = buffer[position++];
+      if (skipLineFeed) {
+        skipLineFeed = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      if (c == '\n' || c == '\r') {
+        skipLineFeed = c == '\r';
+        lineNumber++;
+        return true;
+      }
+      lineBuffer(length + 1)[length++] = c;
+    }
+  }
+
+  /**
+   * Gets the line buffer for a subclass to fill with the next line, growing it if needed.
+   *
+   * @param capacity the number of chars needed
+   * @return the line buffer, holding the current line until it is filled
+   */
+  protected char[] lineBuffer(int capacity) {
+    if (capacity > line.length) {
+      char[] bigger = new char[Math.max(capacity, line.length * 2)];
+      System.arraycopy(line, 0, bigger, 0, length);
+      line = bigger;
+    }
+    return line;
+  }
+
+  /**
+   * Makes the chars filled in the line buffer by a subclass the current line.
+   *
+   * @param length the number of chars of the line
+   */
+  protected void startLine(int length) {
+    this.length = length;
+    cursor = 0;
+    lineNumber++;
+  }
+
+  /**
+   * Sets the number of the current line, for a subclass reading a part of a specification.
+   *
+   * @param lineNumber the number of the current line in the whole specification
+   */
+  protected void setLineNumber(int lineNumber) {
+    this.lineNumber = lineNumber;
+  }
+
+  /**
+   * Creates an exception for an error in the current line, with its line number.
+   *
+   * @param message the error message
+   * @return the exception, with a message like "Line 12: Missing field."
+   */
+  public IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(errorMessage(message));
+  }
+
+  /**
+   * Advances to the next line, which must exist.
+   *
+   * @throws IOException if the source cannot be read
+   * @throws IllegalArgumentException if the source has no more lines
+   */
+  public void requireLine() throws IOException, IllegalArgumentException {
+    if (!nextLine()) {
+      throw new IllegalArgumentException(
+          "Unexpected end of file after line " + lineNumber + ".");
+    }
+  }
+
+  /**
+   * Gets the number of the current line.
+   *
+   * @return the line number, from 1, or 0 before the first line
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Gets the whole current line.
+   *
+   * @return the current line without its line terminator
+   */
+  public String getLine() {
+    return new String(line, 0, length);
+  }
+
+  /**
+   * Gets the length of the current line.
+   *
+   * @return the number of chars of the current line without its line terminator
+   */
+  public int getLineLength() {
+    return length;
+  }
+
+  /**
+   * Copies the current line into a char array, like {@link String#getChars}.
+   *
+   * @param dst the destination array, with room for {@link #getLineLength()} chars
+   * @param dstBegin the position in the destination array
+   */
+  public void getLineChars(char[] dst, int dstBegin) {
+    System.arraycopy(line, 0, dst, dstBegin, length);
+  }
+
+  /**
+   * Checks if the current line has more tokens.
+   *
+   * @return true if there are more tokens, false if not
+   */
+  public boolean hasMoreTokens() {
+    skipDelimiters();
+    return cursor < length;
+  }
+
+  /**
+   * Reads the next token of the current line.
+   *
+   * @return the token
+   * @throws IllegalArgumentException if the line has no more tokens
+   */
+  public String nextToken() throws IllegalArgumentException {
+    int start = tokenStart();
+    return new String(line, start, cursor - start);
+  }
+
+  /**
+   * Reads the next token of the current line as an int, like {@link Integer#parseInt}.
+   *
+   * @return the int value
+   * @throws NumberFormatException if the token is not an int
+   * @throws IllegalArgumentException if the line has no more tokens
+   */
+  public int nextInt() throws IllegalArgumentException {
+    int start = tokenStart();
+    int i = start;
+    boolean negative = line[i] == '-';
+    if (negative || line[i] == '+') {
+      i++;
+    }
+    if (i == cursor || cursor - i > 9) { // no digits, or may overflow
+      return parseInt(start);
+    }
+    int value = 0;
+    for (; i < cursor; i++) {
+      int digit = line[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return parseInt(start); // throws
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Reads the next token of the current line as a double, like {@link Double#parseDouble}.
+   * Plain decimals of up to 15 digits, such as body temperatures, are parsed in place
+   * and exactly rounded; other forms fall back to {@link Double#parseDouble}.
+   *
+   * @return the double value
+   * @throws NumberFormatException if the token is not a double
+   * @throws IllegalArgumentException if the line has no more tokens
+   */
+  public double nextDouble() throws IllegalArgumentException {
+    int start = tokenStart();
+    int i = start;
+    boolean negative = line[i] == '-';
+    if (negative || line[i] == '+') {
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int scale = -1; // the number of digits after the point, or -1 before the point
+    for (; i < cursor; i++) {
+      char c = line[i];
+      if (c >= '0' && c <= '9') {
+        mantissa = mantissa * 10 + (c - '0');
+        digits++;
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if (c == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        break;
+      }
+    }
+    if (i < cursor || digits == 0 || digits > 15) { // not a plain short decimal
+      try {
+        return Double.parseDouble(new String(line, start, cursor - start));
+      } catch (NumberFormatException e) {
+        throw new NumberFormatException(errorMessage(e.getMessage()));
+      }
+    }
+    // Both operands are exact doubles, so the quotient is rounded like parseDouble
+    double value = scale > 0 ? mantissa / DOUBLE_POWERS_OF_TEN[scale] : mantissa;
+    return negative ? -value : value;
+  }
+
+  /**
+   * Reads the next two tokens of the current line as a date and time in the format
+   * yyyy/MM/dd HH:mm. As with that pattern in {@link java.time.format.DateTimeFormatter},
+   * a day of 29 to 31 past the end of a month is moved back to the last day of the month.
+   *
+   * @return the date and time
+   * @throws IllegalArgumentException if the tokens are missing or not in the format
+   */
+  public LocalDateTime nextDateTime() throws IllegalArgumentException {
+    int dateStart = tokenStart();
+    int dateEnd = cursor;
+    int timeStart = tokenStart();
+    if (dateEnd - dateStart != 10 || line[dateStart + 4] != '/' || line[dateStart + 7] != '/'
+        || cursor - timeStart != 5 || line[timeStart + 2] != ':') {
+      throw error("Invalid date/time format (yyyy/MM/dd HH:mm).");
+    }
+    int year = digits(dateStart, 4);
+    int month = digits(dateStart + 5, 2);
+    int day = digits(dateStart + 8, 2);
+    int hour = digits(timeStart, 2);
+    int minute = digits(timeStart + 3, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+        || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+      throw error("Invalid date/time format (yyyy/MM/dd HH:mm).");
+    }
+    int monthLength = Month.of(month).length(Year.isLeap(year));
+    return LocalDateTime.of(year, month, Math.min(day, monthLength), hour, minute);
+  }
+
+  /**
+   * Reads the remaining tokens of the current line, separated by single spaces.
+   *
+   * @return the remaining tokens, or an empty string if there are none
+   */
+  public String rest() {
+    StringBuilder sb = null;
+    int start = -1;
+    int end = -1;
+    while (hasMoreTokens()) {
+      int tokenStart = cursor;
+      skipToken();
+      if (start < 0) { // avoid a StringBuilder for a single token
+        start = tokenStart;
+        end = cursor;
+      } else {
+        if (sb == null) {
+          sb = new StringBuilder().append(line, start, end - start);
+        }
+        sb.append(' ').append(line, tokenStart, cursor - tokenStart);
+      }
+    }
+    if (sb != null) {
+      return sb.toString();
+    }
+    return start < 0 ? "" : new String(line, start, end - start);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (source != null) {
+      source.close();
+    }
+  }
+
+  /**
+   * Helper method to find the next token of the current line and move past it.
+   *
+   * @return the start of the token, which ends at the cursor
+   * @throws IllegalArgumentException if the line has no more tokens
+   */
+  private int tokenStart() throws IllegalArgumentException {
+    if (!hasMoreTokens()) {
+      throw error("Missing field.");
+    }
+    int start = cursor;
+    skipToken();
+    return start;
+  }
+
+  /**
+   * Helper method to parse the token ending at the cursor with {@link Integer#parseInt}.
+   *
+   * @param start the start of the token
+   * @return the int value
+   * @throws NumberFormatException if the token is not an int
+   */
+  private int parseInt(int start) throws NumberFormatException {
+    try {
+      return Integer.parseInt(new String(line, start, cursor - start));
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException(errorMessage(e.getMessage()));
+    }
+  }
+
+  /**
+   * Helper method to prefix an error message with the current line number.
+   *
+   * @param message the error message
+   * @return the error message of the current line
+   */
+  private String errorMessage(String message) {
+    return "Line " + lineNumber + ": " + message;
+  }
+
+  /**
+   * Helper method to move the cursor past the delimiters.
+   */
+  private void skipDelimiters() {
+    while (cursor < length && isDelimiter(line[cursor])) {
+      cursor++;
+    }
+  }
+
+  /**
+   * Helper method to move the cursor past a token.
+   */
+  private void skipToken() {
+    while (cursor < length && !isDelimiter(line[cursor])) {
+      cursor++;
+    }
+  }
+
+  /**
+   * Helper method to parse a fixed number of decimal digits in the current line.
+   *
+   * @param start the position of the first digit
+   * @param count the number of digits, at most 4
+   * @return the value, or -1 if any of the chars is not a digit
+   */
+  private int digits(int start, int count) {
+    int value = 0;
+    for (int i = 0; i < count; i++) {
+      int digit = line[start + i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value += digit * POWERS_OF_TEN[count - 1 - i];
+    }
+    return value;
+  }
+
+  /**
+   * Helper method to check if a char separates tokens, like {@code [\\s,]} in a regex.
+   *
+   * @param c the char
+   * @return true if the char is whitespace or a comma, false if not
+   */
+  private static boolean isDelimiter(char c) {
+    return c == ' ' || c == ',' || c == '\t' || c == '\n' || c == '\r' || c == '\f'
+        || c == '\u000B';
+  }
+}
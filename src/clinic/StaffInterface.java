@@ -47,6 +47,7 @@ public interface StaffInterface {
   /**
    * A clinical staff member can be assigned to a patient.
    * This method gets the patients that the staff has been assigned to.
+   * It returns an immutable snapshot, which is not affected by later assignments.
    * 
    * @return the list of the patients that the staff has been assigned to
    */
@@ -54,6 +55,7 @@ public interface StaffInterface {
   
   /**
    * This method gets all the patients that the staff has ever been assigned to.
+   * It returns an immutable snapshot, which is not affected by later assignments.
    * 
    * @return the list of the patients that the staff has ever been assigned to
    */
@@ -82,7 +84,8 @@ public interface StaffInterface {
   public Boolean isActive();
   
   /**
-   * Set the job title of this staff member. 
+   * Set the job title of this staff member. For a staff member registered in a clinic, 
+   * use {@link ClinicInterface#changeStaffJobTitle} so the clinic sees the change.
    * 
    * @param jobTitle the updated job title of the staff member
    */
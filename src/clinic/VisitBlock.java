@@ -0,0 +1,235 @@
+package clinic;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class represents a batch of visit record lines of a clinic specification, parsed
+ * in parallel. The lines are first read in order from a {@link SpecTokenizer} into one char
+ * array, then split into chunks of consecutive lines which are parsed by fork-join tasks
+ * into the per-line fields, so the tasks share nothing but the read-only text. The caller
+ * then merges the fields in line order, so the result does not depend on the scheduling.
+ * It keeps:
+ * - {@code text}, {@code lineStarts}: the lines of the batch, line i being the chars from
+ *   {@code lineStarts[i]} to {@code lineStarts[i + 1]}
+ * - {@code firstLineNumber}: the line number of the first line in the specification
+ * - {@code patientIds}, {@code times}, {@code temperatures}, {@code complaints}: the fields
+ *   of each line
+ * - {@code errors}: the parse error of each line, only set for the first error of a chunk,
+ *   since the lines after it are not parsed
+ */
+public class VisitBlock {
+  private static final int CHUNK_LINES = 4096;
+
+  private char[] text;
+  private final int[] lineStarts;
+  private int size;
+  private int firstLineNumber;
+  private final int[] patientIds;
+  private final LocalDateTime[] times;
+  private final double[] temperatures;
+  private final String[] complaints;
+  private final IllegalArgumentException[] errors;
+
+  /**
+   * Constructor of an empty VisitBlock.
+   *
+   * @param capacity the maximum number of lines of a batch
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public VisitBlock(int capacity) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive.");
+    }
+    text = new char[capacity * 32];
+    lineStarts = new int[capacity + 1];
+    patientIds = new int[capacity];
+    times = new LocalDateTime[capacity];
+    temperatures = new double[capacity];
+    complaints = new String[capacity];
+    errors = new IllegalArgumentException[capacity];
+  }
+
+  /**
+   * Reads the next lines of a specification as a new batch, replacing the previous batch.
+   *
+   * @param reader the tokenizer of the specification
+   * @param count the number of lines to read, at most the capacity
+   * @throws IOException if any IO issues with reader
+   * @throws IllegalArgumentException if the specification ends before the lines
+   */
+  public void read(SpecTokenizer reader, int count) throws IOException, IllegalArgumentException {
+    size = 0;
+    firstLineNumber = reader.getLineNumber() + 1;
+    int end = 0;
+    for (int i = 0; i < count; i++) {
+      reader.requireLine();
+      int length = reader.getLineLength();
+      if (end + length > text.length) {
+        char[] bigger = new char[Math.max(end + length, text.length * 2)];
+        System.arraycopy(text, 0, bigger, 0, end);
+        text = bigger;
+      }
+      reader.getLineChars(text, end);
+      lineStarts[i] = end;
+      end += length;
+      errors[i] = null;
+      size++;
+    }
+    lineStarts[size] = end;
+  }
+
+  /**
+   * Parses the lines of the batch in chunks on a fork-join pool. A batch of a single chunk
+   * is parsed in the calling thread.
+   *
+   * @param pool the pool to run the tasks in
+   */
+  public void parse(ForkJoinPool pool) {
+    int chunks = (size + CHUNK_LINES - 1) / CHUNK_LINES;
+    if (chunks == 1) {
+      parseChunk(0);
+    } else if (chunks > 1) {
+      pool.invoke(new Task(0, chunks));
+    }
+  }
+
+  /**
+   * Gets the number of lines of the batch.
+   *
+   * @return the number of lines
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the patient ID of a line, after checking that the line was parsed.
+   *
+   * @param i the index of the line in the batch
+   * @return the patient ID
+   * @throws IllegalArgumentException if the line could not be parsed, with its line number
+   */
+  public int getPatientId(int i) throws IllegalArgumentException {
+    if (errors[i] != null) {
+      throw errors[i];
+    }
+    return patientIds[i];
+  }
+
+  /**
+   * Gets the registration date and time of a line.
+   *
+   * @param i the index of the line in the batch
+   * @return the registration date and time
+   */
+  public LocalDateTime getRegistrationDateTime(int i) {
+    return times[i];
+  }
+
+  /**
+   * Gets the body temperature of a line.
+   *
+   * @param i the index of the line in the batch
+   * @return the body temperature in degrees Celsius
+   */
+  public double getBodyTemperature(int i) {
+    return temperatures[i];
+  }
+
+  /**
+   * Gets the chief complaint of a line.
+   *
+   * @param i the index of the line in the batch
+   * @return the chief complaint
+   */
+  public String getChiefComplaint(int i) {
+    return complaints[i];
+  }
+
+  /**
+   * Creates an exception for an error found in a line while merging it.
+   *
+   * @param i the index of the line in the batch
+   * @param message the error message
+   * @return the exception, with a message like "Line 12: Unreasonable body temperature."
+   */
+  public IllegalArgumentException error(int i, String message) {
+    return new IllegalArgumentException("Line " + (firstLineNumber + i) + ": " + message);
+  }
+
+  /**
+   * Helper method to parse a chunk of lines, stopping at the first error.
+   *
+   * @param chunk the index of the chunk
+   */
+  private void parseChunk(int chunk) {
+    int from = chunk * CHUNK_LINES;
+    ChunkTokenizer tokenizer = new ChunkTokenizer(from, Math.min(size, from + CHUNK_LINES));
+    for (int i = from; tokenizer.nextLine(); i++) {
+      try {
+        patientIds[i] = tokenizer.nextInt();
+        times[i] = tokenizer.nextDateTime();
+        temperatures[i] = tokenizer.nextDouble();
+        complaints[i] = tokenizer.rest();
+      } catch (IllegalArgumentException e) { // the message already has the line number
+        errors[i] = e;
+        return;
+      }
+    }
+  }
+
+  /**
+   * A tokenizer of a chunk of lines of the batch, numbering them as in the specification.
+   */
+  private final class ChunkTokenizer extends SpecTokenizer {
+    private int next;
+    private final int end;
+
+    private ChunkTokenizer(int from, int to) {
+      next = from;
+      end = to;
+      setLineNumber(firstLineNumber + from - 1);
+    }
+
+    @Override
+    public boolean nextLine() {
+      if (next == end) {
+        return false;
+      }
+      int start = lineStarts[next];
+      int length = lineStarts[next + 1] - start;
+      System.arraycopy(text, start, lineBuffer(length), 0, length);
+      startLine(length);
+      next++;
+      return true;
+    }
+  }
+
+  /**
+   * A fork-join task parsing a range of chunks, splitting it in halves until it is a
+   * single chunk.
+   */
+  private final class Task extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int from;
+    private final int to;
+
+    private Task(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        parseChunk(from);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new Task(from, mid), new Task(mid, to));
+    }
+  }
+}
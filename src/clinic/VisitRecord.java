@@ -12,6 +12,8 @@ import java.util.Objects;
  * This class is immutable, meaning the values cannot be changed after initialization.
  */
 public class VisitRecord implements VisitRecordInterface {
+  private static final DateTimeFormatter FORMATTER = 
+      DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
   private final LocalDateTime registrationDateTime;
   private final String chiefComplaint;
   private final double bodyTemperature;
@@ -25,15 +27,17 @@ public class VisitRecord implements VisitRecordInterface {
    */
   public VisitRecord(String registrationDateTime, 
       String chiefComplaint, double bodyTemperature) {
-    LocalDateTime regDt;
-    
-    // Validate registrationDateTime
-    try {
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
-      regDt = LocalDateTime.parse(registrationDateTime, formatter);
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Invalid date/time format (yyyy/MM/dd HH:mm).");
-    }
+    this(parseDateTime(registrationDateTime), chiefComplaint, bodyTemperature);
+  }
+
+  /**
+   * Constructs a new patient visit record from an already parsed date and time.
+   *
+   * @param regDt the date and time of registration
+   * @param chiefComplaint the patient's chief complaint
+   * @param bodyTemperature the patient's body temperature in degrees Celsius
+   */
+  public VisitRecord(LocalDateTime regDt, String chiefComplaint, double bodyTemperature) {
     // Assuming a reasonable range for visit date is year 2000 till now
     if (regDt.isAfter(LocalDateTime.now()) 
         || regDt.isBefore(LocalDateTime.of(2000, 1, 1, 0, 0))) {
@@ -50,6 +54,22 @@ public class VisitRecord implements VisitRecordInterface {
     this.bodyTemperature = bodyTemperature;
   }
 
+  /**
+   * Helper method to parse a date and time of registration.
+   *
+   * @param registrationDateTime the date and time of registration (yyyy/MM/dd HH:mm)
+   * @return the parsed date and time
+   * @throws IllegalArgumentException if the format is invalid
+   */
+  private static LocalDateTime parseDateTime(String registrationDateTime) 
+      throws IllegalArgumentException {
+    try {
+      return LocalDateTime.parse(registrationDateTime, FORMATTER);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date/time format (yyyy/MM/dd HH:mm).");
+    }
+  }
+
   @Override
   public LocalDateTime getRegistrationDateTime() {
     return registrationDateTime;
@@ -86,23 +106,59 @@ public class VisitRecord implements VisitRecordInterface {
   
   /**
    * Compares to another object for equality.
-   * They are considered equal when all key fields are equal.
+   * They are considered equal when all key fields are equal, so a VisitRecord is equal to 
+   * a visit record view of {@link VisitStore} with the same fields.
    * 
    * @param o the object to compare with
    * @return true if the objects are equal, false otherwise
    */
   @Override
   public boolean equals(Object o) {
-    if (this == o) { 
+    return sameFields(this, o);
+  }
+  
+  /**
+   * Helper method to compare a visit record with another object by all key fields, shared by 
+   * the implementations of {@link VisitRecordInterface} in this package. Body temperatures 
+   * are compared in hundredths of a degree, the precision kept by {@link VisitStore}.
+   * 
+   * @param v the visit record
+   * @param o the object to compare with
+   * @return true if the object is a visit record with the same fields, false otherwise
+   */
+  static boolean sameFields(VisitRecordInterface v, Object o) {
+    if (v == o) { 
       return true;
     }
-    if (!(o instanceof VisitRecord)) {
+    if (!(o instanceof VisitRecordInterface)) {
       return false;
     }
-    VisitRecord that = (VisitRecord) o;
-    return Objects.equals(this.registrationDateTime, that.registrationDateTime) 
-        && Objects.equals(this.chiefComplaint, that.chiefComplaint) 
-        && Math.abs(this.bodyTemperature - that.bodyTemperature) < 0.01;
+    VisitRecordInterface that = (VisitRecordInterface) o;
+    return Objects.equals(v.getRegistrationDateTime(), that.getRegistrationDateTime()) 
+        && Objects.equals(v.getChiefComplaint(), that.getChiefComplaint()) 
+        && hundredths(v.getBodyTemperature()) == hundredths(that.getBodyTemperature());
+  }
+  
+  /**
+   * Helper method to calculate a hash code of a visit record from all key fields, consistent 
+   * with {@link #sameFields(VisitRecordInterface, Object)}.
+   * 
+   * @param v the visit record
+   * @return the hash code of the visit record
+   */
+  static int hashFields(VisitRecordInterface v) {
+    return Objects.hash(v.getRegistrationDateTime(), v.getChiefComplaint(), 
+        hundredths(v.getBodyTemperature()));
+  }
+  
+  /**
+   * Helper method to round a body temperature to hundredths of a degree.
+   * 
+   * @param bodyTemperature the body temperature in degrees Celsius
+   * @return the body temperature in hundredths of a degree Celsius
+   */
+  static long hundredths(double bodyTemperature) {
+    return Math.round(bodyTemperature * 100);
   }
 
   /**
@@ -112,12 +168,12 @@ public class VisitRecord implements VisitRecordInterface {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(registrationDateTime, chiefComplaint, bodyTemperature);
+    return hashFields(this);
   }
   
   @Override
   public int compareTo(VisitRecordInterface other) {
-    return this.registrationDateTime.compareTo(((VisitRecord) other).registrationDateTime);
+    return this.registrationDateTime.compareTo(other.getRegistrationDateTime());
   }
   
 }
@@ -0,0 +1,261 @@
+package clinic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class represents statistics of a set of visits, including the fever rate, the mean
+ * and percentile body temperature by month, and the number of visits per weekday.
+ *
+ * The statistics are computed by {@link #compute(VisitStore.Columns, int[], ForkJoinPool)},
+ * which splits the visits into fork-join tasks. Each task counts its visits into its own
+ * VisitStatistics, and the results are combined with {@link #merge(VisitStatistics)}, so the
+ * tasks share nothing while they run. It keeps:
+ * - {@code count}, {@code feverCount}: the number of visits, and those with a fever
+ * - {@code weekdayCounts}: the number of visits on each day of the week, from Monday
+ * - {@code months}: the temperature sum and histogram of each month, keyed by month number
+ *
+ * Temperatures are counted in bins of 0.1°C, so the percentiles are exact to 0.1°C,
+ * the precision the clinic displays.
+ */
+public class VisitStatistics {
+  /** The body temperature from which a visit counts as a fever, in degrees Celsius. */
+  public static final double FEVER_TEMPERATURE = 38.0;
+
+  private static final int SPLIT_THRESHOLD = 8192;
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final int MIN_BIN = 300; // 30.0°C, the lowest accepted temperature
+  private static final int BINS = 151; // up to 45.0°C
+
+  private long count;
+  private long feverCount;
+  private final long[] weekdayCounts;
+  private final Map<Integer, MonthStatistics> months;
+
+  /**
+   * Constructor of statistics of no visits.
+   */
+  public VisitStatistics() {
+    weekdayCounts = new long[7];
+    months = new HashMap<>();
+  }
+
+  /**
+   * Computes the statistics of the specified rows of the visit store in parallel.
+   *
+   * @param columns the snapshot of the visit store columns
+   * @param rows the rows of the visits
+   * @param pool the pool to run the tasks in
+   * @return the statistics of the visits
+   */
+  public static VisitStatistics compute(VisitStore.Columns columns, int[] rows,
+      ForkJoinPool pool) {
+    return pool.invoke(new Task(columns, rows, 0, rows.length));
+  }
+
+  /**
+   * Adds the visits counted in other statistics into these statistics.
+   *
+   * @param other the other statistics, which is left unchanged
+   * @return these statistics
+   */
+  public VisitStatistics merge(VisitStatistics other) {
+    count += other.count;
+    feverCount += other.feverCount;
+    for (int i = 0; i < 7; i++) {
+      weekdayCounts[i] += other.weekdayCounts[i];
+    }
+    for (Map.Entry<Integer, MonthStatistics> e : other.months.entrySet()) {
+      MonthStatistics m = months.computeIfAbsent(e.getKey(), k -> new MonthStatistics());
+      m.merge(e.getValue());
+    }
+    return this;
+  }
+
+  /**
+   * Gets the number of visits.
+   *
+   * @return the number of visits
+   */
+  public long getVisitCount() {
+    return count;
+  }
+
+  /**
+   * Gets the share of the visits with a body temperature of at least 38.0°C.
+   *
+   * @return the fever rate from 0 to 1, or 0 if there are no visits
+   */
+  public double getFeverRate() {
+    return count == 0 ? 0 : (double) feverCount / count;
+  }
+
+  /**
+   * Gets the number of visits on each day of the week.
+   *
+   * @return the number of visits keyed by day of the week, from Monday
+   */
+  public Map<DayOfWeek, Long> getVisitsPerWeekday() {
+    Map<DayOfWeek, Long> result = new EnumMap<>(DayOfWeek.class);
+    for (DayOfWeek d : DayOfWeek.values()) {
+      result.put(d, weekdayCounts[d.ordinal()]);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the months with visits.
+   *
+   * @return the list of the months in chronological order
+   */
+  public List<YearMonth> getMonths() {
+    List<YearMonth> result = new ArrayList<>();
+    for (int key : months.keySet()) {
+      result.add(YearMonth.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1));
+    }
+    result.sort(null);
+    return result;
+  }
+
+  /**
+   * Gets the mean body temperature of the visits in a month.
+   *
+   * @param month the month
+   * @return the mean body temperature in degrees Celsius, or NaN if no visits in the month
+   */
+  public double getMeanTemperature(YearMonth month) {
+    MonthStatistics m = months.get(monthKey(month));
+    return m == null ? Double.NaN : m.sumHundredths / 100.0 / m.count;
+  }
+
+  /**
+   * Gets a percentile of the body temperature of the visits in a month, by nearest rank.
+   *
+   * @param month the month
+   * @param percentile the percentile, from 0 (exclusive) to 100 (inclusive), e.g. 50
+   * @return the body temperature in degrees Celsius to 0.1°C, or NaN if no visits in the month
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public double getPercentileTemperature(YearMonth month, double percentile)
+      throws IllegalArgumentException {
+    if (!(percentile > 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be in (0, 100].");
+    }
+    MonthStatistics m = months.get(monthKey(month));
+    if (m == null) {
+      return Double.NaN;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * m.count);
+    long seen = 0;
+    for (int bin = 0; bin < BINS; bin++) {
+      seen += m.histogram[bin];
+      if (seen >= rank) {
+        return (bin + MIN_BIN) / 10.0;
+      }
+    }
+    return (BINS - 1 + MIN_BIN) / 10.0;
+  }
+
+  /**
+   * Helper method to count a range of rows into these statistics in a single thread.
+   *
+   * @param columns the snapshot of the visit store columns
+   * @param rows the rows of the visits
+   * @param from the first index into rows (inclusive)
+   * @param to the last index into rows (exclusive)
+   */
+  private void count(VisitStore.Columns columns, int[] rows, int from, int to) {
+    long lastDay = Long.MIN_VALUE;
+    int weekday = 0;
+    MonthStatistics month = null;
+    for (int i = from; i < to; i++) {
+      int row = rows[i];
+      long day = Math.floorDiv(columns.getMinute(row), MINUTES_PER_DAY);
+      if (day != lastDay) { // rows are mostly in time order, so the day rarely changes
+        lastDay = day;
+        weekday = Math.floorMod(day + 3, 7); // 1970/01/01 is a Thursday
+        LocalDate date = LocalDate.ofEpochDay(day);
+        month = months.computeIfAbsent(date.getYear() * 12 + date.getMonthValue() - 1,
+            k -> new MonthStatistics());
+      }
+      int temperature = columns.getTemperatureHundredths(row);
+      int bin = Math.min(BINS - 1, Math.max(0, (temperature + 5) / 10 - MIN_BIN));
+      count++;
+      if (temperature >= FEVER_TEMPERATURE * 100) {
+        feverCount++;
+      }
+      weekdayCounts[weekday]++;
+      month.count++;
+      month.sumHundredths += temperature;
+      month.histogram[bin]++;
+    }
+  }
+
+  /**
+   * Helper method to get the key of a month.
+   *
+   * @param month the month
+   * @return the number of months since year 0
+   */
+  private static int monthKey(YearMonth month) {
+    return month.getYear() * 12 + month.getMonthValue() - 1;
+  }
+
+  /**
+   * The temperature statistics of a month.
+   */
+  private static final class MonthStatistics {
+    private long count;
+    private long sumHundredths;
+    private final long[] histogram = new long[BINS];
+
+    private void merge(MonthStatistics other) {
+      count += other.count;
+      sumHundredths += other.sumHundredths;
+      for (int i = 0; i < BINS; i++) {
+        histogram[i] += other.histogram[i];
+      }
+    }
+  }
+
+  /**
+   * A fork-join task computing the statistics of a range of rows, splitting it in halves
+   * until it is small enough to count in a single thread.
+   */
+  private static final class Task extends RecursiveTask<VisitStatistics> {
+    private static final long serialVersionUID = 1L;
+    private final transient VisitStore.Columns columns;
+    private final int[] rows;
+    private final int from;
+    private final int to;
+
+    private Task(VisitStore.Columns columns, int[] rows, int from, int to) {
+      this.columns = columns;
+      this.rows = rows;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected VisitStatistics compute() {
+      if (to - from <= SPLIT_THRESHOLD) {
+        VisitStatistics stats = new VisitStatistics();
+        stats.count(columns, rows, from, to);
+        return stats;
+      }
+      int mid = (from + to) >>> 1;
+      Task left = new Task(columns, rows, from, mid);
+      left.fork();
+      VisitStatistics right = new Task(columns, rows, mid, to).compute();
+      return left.join().merge(right);
+    }
+  }
+}
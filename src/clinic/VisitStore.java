@@ -0,0 +1,383 @@
+package clinic;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores the fields of all visit records in primitive columns, one row per visit,
+ * instead of one object per visit. It is designed as Singleton since the visit records of all
+ * patients share the same columns, including patients not yet registered in {@link Clinic}.
+ * - {@code minutes}: the registration date and time, in minutes since 1970/01/01 00:00
+ * - {@code temperatures}: the body temperature, in hundredths of a degree Celsius
+ * - {@code complaints}: the chief complaint, as a code into {@code dictionary}
+ * - {@code patientIds}: the ID of the patient who visited
+ * - {@code dictionary}, {@code codes}: each distinct chief complaint and its code
+ *
+ * A row takes 18 bytes, and each distinct complaint is stored once. Rows are never changed,
+ * so a row can be shared by copies of a patient. Callers read a row through the
+ * {@link VisitRecordInterface} view returned by {@link #get(int)}. Appending is synchronized,
+ * but rows are read without locking, so a row must reach other threads through a
+ * synchronized hand-off such as {@link #columns()}.
+ *
+ * {@link Clinic} replaces the sole instance with an empty store by {@link #reset()} when it
+ * clears its model. Views and patients keep the store of their rows, so patients created
+ * before can still be read, and the old rows are freed once nothing holds them.
+ */
+public final class VisitStore {
+  private static final int INITIAL_CAPACITY = 64;
+  private static VisitStore instance;
+
+  private long[] minutes;
+  private short[] temperatures;
+  private int[] complaints;
+  private int[] patientIds;
+  private int size;
+  private final List<String> dictionary;
+  private final Map<String, Integer> codes;
+
+  /**
+   * Hidden constructor of an empty VisitStore.
+   */
+  private VisitStore() {
+    minutes = new long[INITIAL_CAPACITY];
+    temperatures = new short[INITIAL_CAPACITY];
+    complaints = new int[INITIAL_CAPACITY];
+    patientIds = new int[INITIAL_CAPACITY];
+    dictionary = new ArrayList<>();
+    codes = new HashMap<>();
+  }
+
+  /**
+   * Returns the sole instance of VisitStore, which is created when firstly called.
+   *
+   * @return the sole instance of VisitStore
+   */
+  public static synchronized VisitStore getInstance() {
+    if (instance == null) {
+      instance = new VisitStore();
+    }
+    return instance;
+  }
+
+  /**
+   * Replaces the sole instance with a new empty store, to which later rows are added. The
+   * old store is left as it is, so the patients and views holding its rows can still read
+   * them.
+   *
+   * @return the new sole instance of VisitStore
+   */
+  public static synchronized VisitStore reset() {
+    instance = new VisitStore();
+    return instance;
+  }
+
+  /**
+   * Appends a visit as a new row. The values are expected to be validated by the caller,
+   * and the body temperature is rounded to hundredths of a degree.
+   *
+   * @param patientId the ID of the patient who visited
+   * @param registrationDateTime the date and time of registration, to the minute
+   * @param chiefComplaint the patient's chief complaint
+   * @param bodyTemperature the patient's body temperature in degrees Celsius (30-45)
+   * @return the row of the visit
+   */
+  public synchronized int add(int patientId, LocalDateTime registrationDateTime,
+      String chiefComplaint, double bodyTemperature) {
+    if (size == minutes.length) {
+      int capacity = size * 2;
+      minutes = Arrays.copyOf(minutes, capacity);
+      temperatures = Arrays.copyOf(temperatures, capacity);
+      complaints = Arrays.copyOf(complaints, capacity);
+      patientIds = Arrays.copyOf(patientIds, capacity);
+    }
+    minutes[size] = toMinute(registrationDateTime);
+    temperatures[size] = (short) VisitRecord.hundredths(bodyTemperature);
+    complaints[size] = encode(chiefComplaint);
+    patientIds[size] = patientId;
+    return size++;
+  }
+
+  /**
+   * Returns a read-only view of a row.
+   *
+   * @param row the row of the visit
+   * @return the visit record backed by the row
+   */
+  public VisitRecordInterface get(int row) {
+    return new StoredVisitRecord(this, row);
+  }
+
+  /**
+   * Returns a read-only snapshot of the columns, for reading many rows without locking,
+   * such as from several threads. Rows are never changed, so the snapshot stays valid.
+   *
+   * @return the columns of the rows stored so far
+   */
+  public synchronized Columns columns() {
+    return new Columns(minutes, temperatures, complaints, patientIds, size);
+  }
+
+  /**
+   * Gets the row behind a visit record view returned by {@link #get(int)}.
+   *
+   * @param record the visit record
+   * @return the row of the visit, or -1 if the record is not a view of this store
+   */
+  public int rowOf(VisitRecordInterface record) {
+    if (record instanceof StoredVisitRecord && ((StoredVisitRecord) record).store == this) {
+      return ((StoredVisitRecord) record).row;
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the number of rows.
+   *
+   * @return the number of visits stored
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Gets the registration date and time of a row in minutes since 1970/01/01 00:00.
+   *
+   * @param row the row of the visit
+   * @return the registration date and time in epoch minutes
+   */
+  public long getMinute(int row) {
+    return minutes[row];
+  }
+
+  /**
+   * Gets the body temperature of a row.
+   *
+   * @param row the row of the visit
+   * @return the body temperature in degrees Celsius
+   */
+  public double getTemperature(int row) {
+    return temperatures[row] / 100.0;
+  }
+
+  /**
+   * Gets the chief complaint code of a row.
+   *
+   * @param row the row of the visit
+   * @return the code of the chief complaint
+   */
+  public int getComplaintCode(int row) {
+    return complaints[row];
+  }
+
+  /**
+   * Gets the patient ID of a row.
+   *
+   * @param row the row of the visit
+   * @return the ID of the patient who visited
+   */
+  public int getPatientId(int row) {
+    return patientIds[row];
+  }
+
+  /**
+   * Gets the chief complaint of a code.
+   *
+   * @param code the code of the chief complaint
+   * @return the chief complaint
+   */
+  public synchronized String getComplaint(int code) {
+    return dictionary.get(code);
+  }
+
+  /**
+   * Gets the number of distinct chief complaints, which are coded from 0.
+   *
+   * @return the size of the dictionary
+   */
+  public synchronized int dictionarySize() {
+    return dictionary.size();
+  }
+
+  /**
+   * Gets the code of a chief complaint without adding it to the dictionary.
+   *
+   * @param complaint the chief complaint
+   * @return the code of the chief complaint, or -1 if no visit has had it
+   */
+  public synchronized int codeOf(String complaint) {
+    return codes.getOrDefault(complaint, -1);
+  }
+
+  /**
+   * Converts a date and time to minutes since 1970/01/01 00:00.
+   *
+   * @param dateTime the date and time
+   * @return the epoch minutes
+   */
+  public static long toMinute(LocalDateTime dateTime) {
+    return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+  }
+
+  /**
+   * Converts minutes since 1970/01/01 00:00 to a date and time.
+   *
+   * @param minute the epoch minutes
+   * @return the date and time
+   */
+  public static LocalDateTime fromMinute(long minute) {
+    return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+  }
+
+  /**
+   * Helper method to get the code of a chief complaint, adding it to the dictionary if new.
+   *
+   * @param complaint the chief complaint
+   * @return the code of the chief complaint
+   */
+  private int encode(String complaint) {
+    Integer code = codes.get(complaint);
+    if (code == null) {
+      code = dictionary.size();
+      dictionary.add(complaint);
+      codes.put(complaint, code);
+    }
+    return code;
+  }
+
+  /**
+   * A read-only snapshot of the columns of the rows stored before it was taken.
+   * Its getters take the same rows as the getters of {@link VisitStore}.
+   */
+  public static final class Columns {
+    private final long[] minutes;
+    private final short[] temperatures;
+    private final int[] complaints;
+    private final int[] patientIds;
+    private final int size;
+
+    private Columns(long[] minutes, short[] temperatures, int[] complaints, int[] patientIds,
+        int size) {
+      this.minutes = minutes;
+      this.temperatures = temperatures;
+      this.complaints = complaints;
+      this.patientIds = patientIds;
+      this.size = size;
+    }
+
+    /**
+     * Gets the number of rows in the snapshot.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Gets the registration date and time of a row in minutes since 1970/01/01 00:00.
+     *
+     * @param row the row of the visit
+     * @return the registration date and time in epoch minutes
+     */
+    public long getMinute(int row) {
+      return minutes[row];
+    }
+
+    /**
+     * Gets the body temperature of a row in fixed point.
+     *
+     * @param row the row of the visit
+     * @return the body temperature in hundredths of a degree Celsius
+     */
+    public int getTemperatureHundredths(int row) {
+      return temperatures[row];
+    }
+
+    /**
+     * Gets the chief complaint code of a row.
+     *
+     * @param row the row of the visit
+     * @return the code of the chief complaint
+     */
+    public int getComplaintCode(int row) {
+      return complaints[row];
+    }
+
+    /**
+     * Gets the patient ID of a row.
+     *
+     * @param row the row of the visit
+     * @return the ID of the patient who visited
+     */
+    public int getPatientId(int row) {
+      return patientIds[row];
+    }
+  }
+
+  /**
+   * A read-only view of a row in the store. It is equal to any visit record with the same
+   * fields, like {@link VisitRecord}.
+   */
+  private static final class StoredVisitRecord implements VisitRecordInterface {
+    private final VisitStore store;
+    private final int row;
+
+    private StoredVisitRecord(VisitStore store, int row) {
+      this.store = store;
+      this.row = row;
+    }
+
+    @Override
+    public LocalDateTime getRegistrationDateTime() {
+      return fromMinute(store.getMinute(row));
+    }
+
+    @Override
+    public String getChiefComplaint() {
+      return store.getComplaint(store.getComplaintCode(row));
+    }
+
+    @Override
+    public double getBodyTemperature() {
+      return store.getTemperature(row);
+    }
+
+    @Override
+    public String getFormattedBodyTemperature() {
+      return String.format("%.1f", getBodyTemperature());
+    }
+
+    @Override
+    public String toString() {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+      return String.format("Visit on: %s, Body Temperature: %.1f°C, Chief Complaint: %s",
+          getRegistrationDateTime().format(formatter), getBodyTemperature(),
+          getChiefComplaint());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return VisitRecord.sameFields(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+      return VisitRecord.hashFields(this);
+    }
+
+    @Override
+    public int compareTo(VisitRecordInterface other) {
+      int otherRow = store.rowOf(other);
+      if (otherRow >= 0) { // both in the store, compare without creating the date and time
+        return Long.compare(store.getMinute(row), store.getMinute(otherRow));
+      }
+      return getRegistrationDateTime().compareTo(other.getRegistrationDateTime());
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package clinic;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * This class counts the visits of each patient within a sliding time window over the
+ * clinic-wide visit history of {@link Clinic}. It keeps:
+ * - {@code visits}: the visit history it reads from, the {@link VisitStore} rows keyed by
+ *   registration date and time
+ * - {@code from}, {@code to}: the current window, from inclusive and to exclusive
+ * - {@code counts}: the number of visits in the window, keyed by patient ID
+ * - {@code byCount}: the patient IDs grouped by their number of visits in the window
+ *
+ * When the window slides forward, only the visits leaving or entering the window are
+ * counted, so the cost does not depend on the length of the history. The window is
+ * rebuilt from the visits in it when it moves backward or jumps past its old end.
+ */
+public class VisitWindowCounter {
+  private final NavigableMap<LocalDateTime, int[]> visits;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private final Map<Integer, Integer> counts;
+  private final TreeMap<Integer, SortedSet<Integer>> byCount;
+
+  /**
+   * Constructor of VisitWindowCounter with no window set.
+   *
+   * @param visits the visit history to count, which is shared and not copied
+   */
+  public VisitWindowCounter(NavigableMap<LocalDateTime, int[]> visits) {
+    this.visits = visits;
+    counts = new HashMap<>();
+    byCount = new TreeMap<>();
+  }
+
+  /**
+   * Moves the window to the specified period.
+   *
+   * @param newFrom the start of the window (inclusive)
+   * @param newTo the end of the window (exclusive)
+   */
+  public void moveTo(LocalDateTime newFrom, LocalDateTime newTo) {
+    if (from != null && !newFrom.isBefore(from) && !newTo.isBefore(to) && newFrom.isBefore(to)) {
+      // Slide forward: expire the visits before the new start, count the new visits
+      count(visits.subMap(from, true, newFrom, false), -1);
+      count(visits.subMap(to, true, newTo, false), 1);
+    } else {
+      clear();
+      if (newFrom.isBefore(newTo)) {
+        count(visits.subMap(newFrom, true, newTo, false), 1);
+      }
+    }
+    from = newFrom;
+    to = newTo;
+  }
+
+  /**
+   * Counts a new visit, which must also have been added to the visit history.
+   * It is ignored if it is not in the current window.
+   *
+   * @param time the date and time of the visit
+   * @param patientId the ID of the patient who visited
+   */
+  public void add(LocalDateTime time, int patientId) {
+    if (from != null && !time.isBefore(from) && time.isBefore(to)) {
+      change(patientId, 1);
+    }
+  }
+
+  /**
+   * Retrieves the patients with at least the specified number of visits in the window.
+   *
+   * @param threshold the minimum number of visits, at least 1
+   * @return the list of the patient IDs, the most visits first and then by patient ID
+   */
+  public List<Integer> atLeast(int threshold) {
+    List<Integer> result = new ArrayList<>();
+    for (SortedSet<Integer> set
+        : byCount.tailMap(threshold, true).descendingMap().values()) {
+      result.addAll(set);
+    }
+    return result;
+  }
+
+  /**
+   * Removes the window and all counts.
+   */
+  public void clear() {
+    from = null;
+    to = null;
+    counts.clear();
+    byCount.clear();
+  }
+
+  /**
+   * Helper method to change the number of visits of the patients of some visits.
+   *
+   * @param rows the visit store rows of the visits, keyed by registration date and time
+   * @param delta the change in the number of visits for each visit, 1 or -1
+   */
+  private void count(Map<LocalDateTime, int[]> rows, int delta) {
+    VisitStore store = VisitStore.getInstance();
+    for (int[] list : rows.values()) {
+      for (int row : list) {
+        change(store.getPatientId(row), delta);
+      }
+    }
+  }
+
+  /**
+   * Helper method to change the number of visits of a patient and regroup the patient.
+   *
+   * @param patientId the ID of the patient
+   * @param delta the change in the number of visits, 1 or -1
+   */
+  private void change(int patientId, int delta) {
+    int count = counts.getOrDefault(patientId, 0);
+    if (count > 0) {
+      SortedSet<Integer> set = byCount.get(count);
+      set.remove(patientId);
+      if (set.isEmpty()) {
+        byCount.remove(count);
+      }
+    }
+    count += delta;
+    if (count > 0) {
+      counts.put(patientId, count);
+      byCount.computeIfAbsent(count, c -> new TreeSet<>()).add(patientId);
+    } else {
+      counts.remove(patientId);
+    }
+  }
+}
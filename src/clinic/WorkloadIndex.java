@@ -0,0 +1,129 @@
+package clinic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * This class represents a live index of the workload of the active clinical staff in
+ * {@link Clinic}, where the workload is the number of patients currently assigned. It keeps:
+ * - {@code loads}: the workload recorded for each indexed staff member, keyed by staff ID
+ * - {@code titles}: the job title recorded for each indexed staff member, keyed by staff ID
+ * - {@code byJobTitle}: the indexed staff members of each job title, ordered by workload
+ *   and then by staff ID
+ *
+ * The ordering reads the recorded workload, so a staff member is always removed from the
+ * index before the recorded workload changes, and added back afterwards. The job title is
+ * recorded as well, so the staff member is removed from the set it was added to. The index
+ * only follows a job title change made through {@link Clinic#changeStaffJobTitle}, which
+ * calls {@link #update(StaffInterface)}.
+ */
+public class WorkloadIndex {
+  private final Map<Integer, Integer> loads;
+  private final Map<Integer, String> titles;
+  private final Map<String, TreeSet<StaffInterface>> byJobTitle;
+
+  /**
+   * Constructor of an empty WorkloadIndex.
+   */
+  public WorkloadIndex() {
+    loads = new HashMap<>();
+    titles = new HashMap<>();
+    byJobTitle = new HashMap<>();
+  }
+
+  /**
+   * Records the current workload of a staff member after a change in assignments or
+   * in activity. Only active clinical staff members are kept in the index.
+   *
+   * @param staff the staff member
+   */
+  public void update(StaffInterface staff) {
+    remove(staff);
+    if (staff instanceof ClinicalStaff && staff.isActive()) {
+      loads.put(staff.getId(), staff.getAssignedPatients().size());
+      titles.put(staff.getId(), staff.getJobTitle());
+      byJobTitle.computeIfAbsent(staff.getJobTitle(), t -> new TreeSet<>(this::compareByLoad))
+          .add(staff);
+    }
+  }
+
+  /**
+   * Removes a staff member from the index, if indexed.
+   *
+   * @param staff the staff member
+   */
+  public void remove(StaffInterface staff) {
+    String title = titles.remove(staff.getId());
+    if (title != null) {
+      TreeSet<StaffInterface> set = byJobTitle.get(title);
+      set.remove(staff);
+      if (set.isEmpty()) {
+        byJobTitle.remove(title);
+      }
+      loads.remove(staff.getId());
+    }
+  }
+
+  /**
+   * Finds the active clinical staff member of a job title with the fewest patients.
+   *
+   * @param jobTitle the job title, case-insensitive
+   * @return the least loaded staff member, the lowest ID among equals,
+   *     or null if there is no active clinical staff member with the job title
+   */
+  public StaffInterface leastLoaded(String jobTitle) {
+    TreeSet<StaffInterface> set = byJobTitle.get(jobTitle.toUpperCase(Locale.ROOT));
+    return set == null ? null : set.first();
+  }
+
+  /**
+   * Lists the indexed staff members in alphabetical order of job title, and the staff
+   * members of each job title by workload and then by ID.
+   *
+   * @return the list of active clinical staff members
+   */
+  public List<StaffInterface> listByWorkload() {
+    List<StaffInterface> staff = new ArrayList<>(loads.size());
+    for (TreeSet<StaffInterface> set : new TreeMap<>(byJobTitle).values()) {
+      staff.addAll(set);
+    }
+    return staff;
+  }
+
+  /**
+   * Gets the recorded workload of a staff member.
+   *
+   * @param staff the staff member
+   * @return the number of patients assigned, or -1 if the staff member is not indexed
+   */
+  public int getLoad(StaffInterface staff) {
+    return loads.getOrDefault(staff.getId(), -1);
+  }
+
+  /**
+   * Removes all staff members from the index.
+   */
+  public void clear() {
+    loads.clear();
+    titles.clear();
+    byJobTitle.clear();
+  }
+
+  /**
+   * Helper method to order staff members by their recorded workload and then by ID.
+   *
+   * @param a the first staff member
+   * @param b the second staff member
+   * @return a negative integer, zero, or a positive integer as a is less loaded than,
+   *     the same as, or more loaded than b
+   */
+  private int compareByLoad(StaffInterface a, StaffInterface b) {
+    int c = Integer.compare(loads.get(a.getId()), loads.get(b.getId()));
+    return c != 0 ? c : Integer.compare(a.getId(), b.getId());
+  }
+}
@@ -5,7 +5,6 @@ import clinic.PatientInterface;
 import clinic.RoomInterface;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.List;
 import javax.swing.JOptionPane;
 import view.ClinicPanel;
 import view.ClinicView;
@@ -52,12 +51,8 @@ public class AssignPatientToRoom implements CommandInterface {
               boolean success;
               // Perform assignment
               try {
-                List<PatientInterface> patients = m.getPatients();
-                PatientInterface patient = patients.stream()
-                    .filter(p -> p.getId() == patientId).findFirst().orElse(null);
-                List<RoomInterface> rooms = m.getRooms();
-                RoomInterface room = rooms.stream()
-                    .filter(r -> r.getId() == roomId).findFirst().orElse(null);
+                PatientInterface patient = m.findPatientById(patientId);
+                RoomInterface room = m.findRoomById(roomId);
                 m.assignPatientToRoom(patient, room);
                 success = true;
               } catch (IllegalStateException e1) {
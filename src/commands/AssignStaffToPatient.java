@@ -82,8 +82,7 @@ public class AssignStaffToPatient extends JFrame implements CommandInterface {
                   id, panel.getPatientName(id)),
                   "Assign a staff member to a patient", 
                   JOptionPane.INFORMATION_MESSAGE);
-              selectedPatient = m.getPatients().stream()
-                  .filter(p -> p.getId() == id).findFirst().orElse(null);
+              selectedPatient = m.findPatientById(id);
               loadStaffSelector(m, v);
               setVisible(true); 
               currentState = SelectionState.SELECT_STAFF;
@@ -124,16 +123,15 @@ public class AssignStaffToPatient extends JFrame implements CommandInterface {
   }
 
   /**
-   * Helper method to generate a list of active staff members as selector.
+   * Helper method to generate a list of active clinical staff members as selector, 
+   * ordered by job title and then by the fewest assigned patients.
    * Allows multiple selection by clicking on more than one check boxes. 
    * 
    * @param m the Clinic model
    * @param v the Clinic view
    */
   private void loadStaffSelector(ClinicInterface m, ClinicViewInterface v) {
-    List<StaffInterface> activeStaffMembers = m.getStaff().stream()
-        .filter(s -> s.isActive() && s.getNpiCpr().length() == 10)
-        .collect(Collectors.toList());
+    List<StaffInterface> activeStaffMembers = m.listClinicalStaffByWorkload();
     String[] columns = { "", "ID", "Name", "Job Title", "Assigned Patients" };
     staffTableModel = new DefaultTableModel(columns, 0) {
       private static final long serialVersionUID = 1L;
@@ -235,7 +233,7 @@ public class AssignStaffToPatient extends JFrame implements CommandInterface {
     }
     String message = "Staff member(s):\n";
     for (StaffInterface s : selectedStaff) {
-      s.assignToPatient(selectedPatient);
+      m.assignStaffToPatient(s, selectedPatient);
       message += String.format("[%d] %s\n", s.getId(), s.toString());
     }
     v.setStatus("Assigned staff member(s) to patient successfully.", 0);
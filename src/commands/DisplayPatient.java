@@ -20,7 +20,6 @@ import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
@@ -253,8 +252,7 @@ public class DisplayPatient extends JFrame implements CommandInterface {
    * @param p the selected patient
    */
   private void updateVisitPanel(ClinicInterface m, int patientId) {
-    PatientInterface selected = m.getPatients().stream()
-        .filter(p -> p.getId() == Integer.valueOf(patientId)).findFirst().orElse(null);
+    PatientInterface selected = m.findPatientById(patientId);
     
     if (selected != null) {
       name.setText(selected.getFirstName() + " " + selected.getLastName());
@@ -290,18 +288,8 @@ public class DisplayPatient extends JFrame implements CommandInterface {
    * @param p the selected patient
    */
   private void getAssignedStaff(ClinicInterface m, PatientInterface p) {
-    List<StaffInterface> staffs = m.getStaff();
-    List<StaffInterface> assigned = new ArrayList<>();
-    List<StaffInterface> ever = new ArrayList<>();
-    
-    for (StaffInterface s : staffs) {
-      if (s.getAssignedPatients().contains(p)) {
-        assigned.add(s);
-      }
-      if (s.getEverAssigned().contains(p)) {
-        ever.add(s);
-      }
-    }
+    List<StaffInterface> assigned = m.getAssignedStaff(p);
+    List<StaffInterface> ever = m.getEverAssignedStaff(p);
     assignedStaff.setText(assigned.isEmpty() ? "N/A" : assigned.stream()
         .map(s -> s.getId() + "/" + s.toString()).collect(Collectors.joining(", ")));
     everAssigned.setText(ever.isEmpty() ? "N/A" : ever.stream()
@@ -5,6 +5,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import view.ClinicViewInterface;
@@ -14,6 +16,7 @@ import view.ClinicViewInterface;
  * which loads clinic specification text into the model.
  */
 public class LoadClinicTextFile implements CommandInterface {
+  private static final String SNAPSHOT_EXTENSION = "snapshot";
 
   @Override
   public String execute(ClinicInterface m, ClinicViewInterface v) {
@@ -29,7 +32,8 @@ public class LoadClinicTextFile implements CommandInterface {
       } else {
         fileChooser.setCurrentDirectory(new File("."));
       }
-      FileNameExtensionFilter filter = new FileNameExtensionFilter("Text Files (*.txt)", "txt");
+      FileNameExtensionFilter filter = new FileNameExtensionFilter(
+          "Clinic Files (*.txt, *.snapshot)", "txt", SNAPSHOT_EXTENSION);
       fileChooser.setFileFilter(filter);
       
       // Confirm selection
@@ -50,19 +54,24 @@ public class LoadClinicTextFile implements CommandInterface {
   }
   
   /**
-   * Helper method to read clinic specification text file into the Clinic model.
+   * Helper method to read clinic specification text file into the Clinic model, 
+   * or to load a binary snapshot saved by the model, which is much faster.
    * 
    * @param m the Clinic model
    * @param v the Clinic view
-   * @param specFile the selected or default text file
+   * @param specFile the selected or default text or snapshot file
    * @return the message indicating success or failure
    */
   private String loadSpec(ClinicInterface m, ClinicViewInterface v, String specFile) {
     try {
-      m.readIntoModel(new FileReader(specFile));
+      if (specFile.endsWith("." + SNAPSHOT_EXTENSION)) {
+        m.loadSnapshot(Paths.get(specFile));
+      } else {
+        m.readIntoModel(new FileReader(specFile));
+      }
       v.setMenu(2);
       return "File read into model successfully.";
-    } catch (FileNotFoundException e) {
+    } catch (FileNotFoundException | NoSuchFileException e) {
       return "File not found: " + e.getMessage();
     } catch (IOException e) {
       return "Error reading file: " + e.getMessage();
@@ -81,8 +81,7 @@ public class SendPatientHome extends JFrame implements CommandInterface {
                   id, panel.getPatientName(id)),
                   "Send patient home", 
                   JOptionPane.INFORMATION_MESSAGE);
-              selectedPatient = m.getPatients().stream()
-                  .filter(p -> p.getId() == id).findFirst().orElse(null);
+              selectedPatient = m.findPatientById(id);
               loadStaffTable(m, v);
               addButton(v);
               setVisible(true); 
@@ -172,8 +171,7 @@ public class SendPatientHome extends JFrame implements CommandInterface {
       public void mouseClicked(MouseEvent e) {
         int row = table.rowAtPoint(e.getPoint());
         int staffId = (int) table.getValueAt(row, 0);
-        selectedStaff = m.getStaff().stream()
-            .filter(p -> p.getId() == staffId).findFirst().orElse(null); 
+        selectedStaff = m.findStaffById(staffId);
         v.setStatus(String.format("Selected %s as the approving staff member.", 
             table.getValueAt(row, 1)), 0);
         int choice = JOptionPane.showConfirmDialog(null, 
@@ -13,7 +13,6 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.ArrayList;
 import java.util.List;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -73,16 +72,9 @@ public class UnassignStaffFromPatient extends JFrame implements CommandInterface
         if (id != -1) {
           switch (currentState) {
             case SELECT_PATIENT:
-              selectedPatient = m.getPatients().stream()
-              .filter(p -> p.getId() == id).findFirst().orElse(null);
+              selectedPatient = m.findPatientById(id);
               
-              List<StaffInterface> staffs = m.getStaff();
-              List<StaffInterface> assigned = new ArrayList<>();
-              for (StaffInterface s : staffs) {
-                if (s.getAssignedPatients().contains(selectedPatient)) {
-                  assigned.add(s);
-                }
-              }
+              List<StaffInterface> assigned = m.getAssignedStaff(selectedPatient);
               if (assigned.isEmpty()) { // No staff is assigned to this patient
                 v.setStatus("No staff member is assigned to this patient.", 2);
                 JOptionPane.showMessageDialog(null, 
@@ -189,8 +181,7 @@ public class UnassignStaffFromPatient extends JFrame implements CommandInterface
       public void mouseClicked(MouseEvent e) {
         int row = table.rowAtPoint(e.getPoint());
         int staffId = (int) table.getValueAt(row, 0);
-        selectedStaff = m.getStaff().stream()
-            .filter(p -> p.getId() == staffId).findFirst().orElse(null); 
+        selectedStaff = m.findStaffById(staffId);
         v.setStatus(String.format("Selected %s to be unassigned.", 
             table.getValueAt(row, 1)), 0);
         int choice = JOptionPane.showConfirmDialog(null, 
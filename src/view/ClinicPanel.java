@@ -20,7 +20,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
 import javax.swing.JPanel;
 
 /**
@@ -212,9 +211,8 @@ public class ClinicPanel extends JPanel implements ClinicPanelInterface {
     drawClinicBackground(g, imageWidth, imageHeight, maxX, maxY, scale, model.getName());
     
     // Draw rooms
-    List<PatientInterface> patients = model.getPatients();
     for (RoomInterface room : rooms) {
-      drawRoom(g, scale, room, patients);
+      drawRoom(g, scale, room, model.getPatientsInRoom(room));
     }
     g.dispose();
   }
@@ -253,10 +251,10 @@ public class ClinicPanel extends JPanel implements ClinicPanelInterface {
    * @param g the graphics object from BufferedImage
    * @param scale the proper scale based on user-defined coordinates and PROPER_IMAGE_WIDTH
    * @param room the target room
-   * @param patients the list of patients in clinic
+   * @param patientsInRoom the list of patients in the target room
    */
   private void drawRoom(
-      Graphics2D g, int scale, RoomInterface room, List<PatientInterface> patients) {
+      Graphics2D g, int scale, RoomInterface room, List<PatientInterface> patientsInRoom) {
     
     int left = xgap + room.getPosition()[0] * scale;
     int bottom = ygap + room.getPosition()[1] * scale;
@@ -274,7 +272,7 @@ public class ClinicPanel extends JPanel implements ClinicPanelInterface {
     drawRoomName(g, room, left, bottom, right, top, textX, textY);
     textY += (14 + 5);
     drawRoomType(g, room, left, bottom, right, top, textX, textY);
-    drawPatientsInRoom(g, room, patients, left, bottom, right, top, textX, textY);
+    drawPatientsInRoom(g, room, patientsInRoom, left, bottom, right, top, textX, textY);
   }
   
   /**
@@ -375,7 +373,7 @@ public class ClinicPanel extends JPanel implements ClinicPanelInterface {
    * 
    * @param g the graphics object from BufferedImage
    * @param room the target room
-   * @param patients the list of patients in clinic
+   * @param patientsInRoom the list of patients in the target room
    * @param left the left coordinate of the room
    * @param bottom the bottom coordinate of the room
    * @param right the right coordinate of the room
@@ -384,10 +382,8 @@ public class ClinicPanel extends JPanel implements ClinicPanelInterface {
    * @param textY the y coordinate of the text
    */
   private void drawPatientsInRoom(Graphics2D g, 
-      RoomInterface room, List<PatientInterface> patients, 
+      RoomInterface room, List<PatientInterface> patientsInRoom, 
       int left, int bottom, int right, int top, int textX, int textY) {
-    List<PatientInterface> patientsInRoom = patients.stream()
-        .filter(p -> room.equals(p.getAssignedRoom())).collect(Collectors.toList());
     int patientsCount = patientsInRoom.size();
     g.setColor(Color.BLACK); 
     if (patientsCount == 0) {
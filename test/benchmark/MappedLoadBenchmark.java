@@ -0,0 +1,153 @@
+package benchmark;
+
+import clinic.Clinic;
+import clinic.MappedSpecTokenizer;
+import clinic.SpecTokenizer;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A benchmark of loading a spec file through {@link MappedSpecTokenizer} against reading it
+ * through a BufferedReader, which prints the time and the peak heap of tokenizing every
+ * line of a synthetic spec file, then of the whole {@link Clinic#readIntoModel} each way.
+ *
+ * Usage: java benchmark.MappedLoadBenchmark [number of visits, default 1000000]
+ */
+public class MappedLoadBenchmark {
+  private static final int RUNS = 5;
+  private static final int PATIENTS = 10000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the optional number of visits
+   * @throws IOException if the temporary spec file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Path file = Files.createTempFile("clinic", ".txt");
+    try {
+      writeSpec(file, n);
+      System.out.printf("%d visit lines, %.1f MB%n", n, Files.size(file) / 1e6);
+      for (int r = 0; r < RUNS; r++) {
+        resetPeakHeap();
+        long t0 = System.nanoTime();
+        long chars = tokenize(new SpecTokenizer(
+            Files.newBufferedReader(file, StandardCharsets.UTF_8)));
+        long t1 = System.nanoTime();
+        long readerHeap = peakHeap();
+        resetPeakHeap();
+        long mapped = tokenize(new MappedSpecTokenizer(file));
+        long t2 = System.nanoTime();
+        if (chars != mapped) {
+          throw new IllegalStateException("The tokenizers disagree.");
+        }
+        System.out.printf("tokenize reader: %6.1f ms, %5.1f MB peak; "
+            + "mapped: %6.1f ms, %5.1f MB peak%n", (t1 - t0) / 1e6, readerHeap / 1e6,
+            (t2 - t1) / 1e6, peakHeap() / 1e6);
+      }
+      Clinic clinic = Clinic.getInstance();
+      for (int r = 0; r < 2; r++) {
+        clinic.clearState();
+        resetPeakHeap();
+        long t0 = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+          clinic.readIntoModel(reader);
+        }
+        long t1 = System.nanoTime();
+        long readerHeap = peakHeap();
+        clinic.clearState();
+        resetPeakHeap();
+        long t2 = System.nanoTime();
+        clinic.readIntoModel(file);
+        long t3 = System.nanoTime();
+        System.out.printf("readIntoModel reader: %7.1f ms, %6.1f MB peak; "
+            + "mapped: %7.1f ms, %6.1f MB peak%n", (t1 - t0) / 1e6, readerHeap / 1e6,
+            (t3 - t2) / 1e6, peakHeap() / 1e6);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Reads every token of every line.
+   *
+   * @param tokenizer the tokenizer, closed when done
+   * @return the number of chars in the tokens
+   * @throws IOException if the file cannot be read
+   */
+  private static long tokenize(SpecTokenizer tokenizer) throws IOException {
+    long chars = 0;
+    try (SpecTokenizer reader = tokenizer) {
+      while (reader.nextLine()) {
+        while (reader.hasMoreTokens()) {
+          chars += reader.nextToken().length();
+        }
+      }
+    }
+    return chars;
+  }
+
+  /**
+   * Writes a spec file with one room, one staff member, and random visits.
+   *
+   * @param file the file to write
+   * @param n the number of visits
+   * @throws IOException if the file cannot be written
+   */
+  private static void writeSpec(Path file, int n) throws IOException {
+    Random random = new Random(42);
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("Benchmark Clinic\n1\n0 0 10 10 waiting Waiting Room\n");
+      writer.write("1\nphysician Amy Adams doctoral 1234567890\n");
+      writer.write(PATIENTS + "\n");
+      for (int i = 1; i <= PATIENTS; i++) {
+        writer.write("1 First" + i + " Last" + i + " 1980/01/01\n");
+      }
+      writer.write(n + "\n");
+      for (int i = 0; i < n; i++) {
+        writer.write(String.format(Locale.ROOT, "%d %04d/%02d/%02d %02d:%02d %.1f %s%n",
+            1 + random.nextInt(PATIENTS), 2000 + random.nextInt(24), 1 + random.nextInt(12),
+            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+            35 + random.nextInt(60) / 10.0, random.nextBoolean() ? "Cough" : "Chest pain"));
+      }
+    }
+  }
+
+  /**
+   * Helper method to garbage collect and reset the peak usage of the heap pools.
+   */
+  private static void resetPeakHeap() {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Helper method to sum the peak usage of the heap pools since the last reset.
+   *
+   * @return the peak heap usage in bytes
+   */
+  private static long peakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
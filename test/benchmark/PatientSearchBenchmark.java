@@ -0,0 +1,67 @@
+package benchmark;
+
+import clinic.Patient;
+import clinic.PatientNameIndex;
+import java.util.Random;
+
+/**
+ * A benchmark of {@link PatientNameIndex#search}, which indexes random patients with
+ * names built from syllables, about 1% of them named John and 1% Smith, and prints the
+ * average time of prefix, multi-word, misspelled and unmatched queries.
+ *
+ * Usage: java benchmark.PatientSearchBenchmark [number of patients, default 1000000]
+ */
+public class PatientSearchBenchmark {
+  private static final String[] SYLLABLES = {
+      "an", "ber", "ca", "del", "el", "fa", "gor", "ha", "is", "jo", "ka", "lin", "mo",
+      "na", "or", "pe", "qui", "ra", "son", "ta", "ul", "vi", "wen", "xa", "yo", "zel"};
+  private static final String[] QUERIES = {
+      "john", "john smith", "john smyth", "jhon smith", "smith jo", "zzqx", "ka"};
+  private static final int RUNS = 2000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the optional number of patients
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Random random = new Random(42);
+    PatientNameIndex index = new PatientNameIndex();
+    long t0 = System.nanoTime();
+    for (int i = 0; i < n; i++) {
+      String first = random.nextInt(100) == 0 ? "John" : name(random, 2);
+      String last = random.nextInt(100) == 0 ? "Smith" : name(random, 3);
+      index.add(new Patient(first, last, "1990/01/01"));
+    }
+    System.out.printf("%d patients indexed in %.1f s%n", n, (System.nanoTime() - t0) / 1e9);
+
+    for (String query : QUERIES) {
+      int found = 0;
+      for (int r = 0; r < RUNS; r++) { // warm up
+        found = index.search(query, 10).size();
+      }
+      long start = System.nanoTime();
+      for (int r = 0; r < RUNS; r++) {
+        index.search(query, 10);
+      }
+      System.out.printf("%-12s %8.1f us, %d found%n",
+          "\"" + query + "\"", (System.nanoTime() - start) / 1e3 / RUNS, found);
+    }
+  }
+
+  /**
+   * Helper method to build a random capitalized name from syllables.
+   *
+   * @param random the random generator
+   * @param syllables the maximum number of syllables
+   * @return the name
+   */
+  private static String name(Random random, int syllables) {
+    StringBuilder name = new StringBuilder();
+    for (int i = random.nextInt(syllables) + 1; i >= 0; i--) {
+      name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+}
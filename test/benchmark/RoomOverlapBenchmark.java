@@ -0,0 +1,55 @@
+package benchmark;
+
+import clinic.RoomOverlapChecker;
+
+/**
+ * A benchmark of {@link RoomOverlapChecker} against checking each room against every room
+ * before it, which prints the time of validating a grid of rooms without overlap, of
+ * increasing size, the case where every pair of rooms has to be compared.
+ *
+ * Usage: java benchmark.RoomOverlapBenchmark [largest number of rooms, default 40000]
+ */
+public class RoomOverlapBenchmark {
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the optional largest number of rooms
+   */
+  public static void main(String[] args) {
+    int max = args.length > 0 ? Integer.parseInt(args[0]) : 40000;
+    for (int n = 2500; n <= max; n *= 2) {
+      int side = (int) Math.ceil(Math.sqrt(n));
+      int[][] rects = new int[n][];
+      for (int i = 0; i < n; i++) { // 5 x 5 rooms with a corridor of 1 between them
+        int x = i % side * 6;
+        int y = i / side * 6;
+        rects[i] = new int[] {x, y, x + 5, y + 5};
+      }
+
+      long t0 = System.nanoTime();
+      int pairwise = -1;
+      for (int i = 0; i < n && pairwise < 0; i++) {
+        for (int j = 0; j < i; j++) {
+          if (RoomOverlapChecker.intersects(rects[i][0], rects[i][1], rects[i][2], rects[i][3],
+              rects[j][0], rects[j][1], rects[j][2], rects[j][3])) {
+            pairwise = i;
+            break;
+          }
+        }
+      }
+      long t1 = System.nanoTime();
+      RoomOverlapChecker checker = new RoomOverlapChecker();
+      for (int[] r : rects) {
+        checker.add(r[0], r[1], r[2], r[3]);
+      }
+      int sweep = checker.firstOverlap();
+      long t2 = System.nanoTime();
+      if (pairwise != sweep) {
+        throw new IllegalStateException("The checks disagree.");
+      }
+      System.out.printf("%6d rooms: pairwise %8.1f ms, sweep %6.1f ms%n",
+          n, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import clinic.Clinic;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A benchmark of loading a clinic from a binary snapshot against reading its text
+ * specification, which prints the size of each file and the time of
+ * {@link Clinic#readIntoModel} and {@link Clinic#loadSnapshot} on a synthetic clinic.
+ *
+ * Usage: java benchmark.SnapshotBenchmark [number of visits, default 1000000]
+ */
+public class SnapshotBenchmark {
+  private static final int RUNS = 3;
+  private static final int PATIENTS = 10000;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the optional number of visits
+   * @throws IOException if the temporary files cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Path spec = Files.createTempFile("clinic", ".txt");
+    Path snapshot = Files.createTempFile("clinic", ".snapshot");
+    try {
+      writeSpec(spec, n);
+      Clinic clinic = Clinic.getInstance();
+      clinic.clearState();
+      clinic.readIntoModel(spec);
+      clinic.saveSnapshot(snapshot);
+      System.out.printf("%d visits: text %.1f MB, snapshot %.1f MB%n", n,
+          Files.size(spec) / 1e6, Files.size(snapshot) / 1e6);
+      for (int r = 0; r < RUNS; r++) {
+        clinic.clearState();
+        System.gc();
+        long t0 = System.nanoTime();
+        clinic.readIntoModel(spec);
+        long t1 = System.nanoTime();
+        clinic.clearState();
+        System.gc();
+        long t2 = System.nanoTime();
+        clinic.loadSnapshot(snapshot);
+        long t3 = System.nanoTime();
+        System.out.printf("readIntoModel: %7.1f ms, loadSnapshot: %7.1f ms%n",
+            (t1 - t0) / 1e6, (t3 - t2) / 1e6);
+      }
+    } finally {
+      Files.delete(spec);
+      Files.delete(snapshot);
+    }
+  }
+
+  /**
+   * Writes a spec file with one room, one staff member, and random visits.
+   *
+   * @param file the file to write
+   * @param n the number of visits
+   * @throws IOException if the file cannot be written
+   */
+  private static void writeSpec(Path file, int n) throws IOException {
+    Random random = new Random(42);
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("Benchmark Clinic\n1\n0 0 10 10 waiting Waiting Room\n");
+      writer.write("1\nphysician Amy Adams doctoral 1234567890\n");
+      writer.write(PATIENTS + "\n");
+      for (int i = 1; i <= PATIENTS; i++) {
+        writer.write("1 First" + i + " Last" + i + " 1980/01/01\n");
+      }
+      writer.write(n + "\n");
+      for (int i = 0; i < n; i++) {
+        writer.write(String.format(Locale.ROOT, "%d %04d/%02d/%02d %02d:%02d %.1f %s%n",
+            1 + random.nextInt(PATIENTS), 2000 + random.nextInt(24), 1 + random.nextInt(12),
+            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+            35 + random.nextInt(60) / 10.0, random.nextBoolean() ? "Cough" : "Chest pain"));
+      }
+    }
+  }
+}
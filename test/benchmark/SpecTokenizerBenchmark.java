@@ -0,0 +1,158 @@
+package benchmark;
+
+import clinic.Clinic;
+import clinic.SpecTokenizer;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * A benchmark of {@link SpecTokenizer} against the previous parser of the visit records,
+ * which split each line with the regex [\s,]+, parsed the date and time with a formatter
+ * and joined the complaint words with a stream. Both parse the fields of every visit line
+ * of a synthetic spec file without building the model, then the whole file is loaded with
+ * {@link Clinic#readIntoModel}.
+ *
+ * Usage: java benchmark.SpecTokenizerBenchmark [number of visits, default 1000000]
+ */
+public class SpecTokenizerBenchmark {
+  private static final int RUNS = 5;
+  private static final int PATIENTS = 10000;
+  private static final String[] COMPLAINTS = {"Chest pain", "Headache", "Cough",
+      "Sore throat and fever", "Back pain", "Rash"};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the optional number of visits
+   * @throws IOException if the temporary spec file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Path file = Files.createTempFile("clinic", ".txt");
+    try {
+      int headerLines = writeSpec(file, n);
+      System.out.printf("%d visit lines, %.1f MB%n", n, Files.size(file) / 1e6);
+      for (int r = 0; r < RUNS; r++) {
+        long t0 = System.nanoTime();
+        long legacy = parseLegacy(file, headerLines, n);
+        long t1 = System.nanoTime();
+        long tokenized = parseTokenized(file, headerLines, n);
+        long t2 = System.nanoTime();
+        if (legacy != tokenized) {
+          throw new IllegalStateException("The parsers disagree.");
+        }
+        System.out.printf("split regex: %7.1f ms, tokenizer: %7.1f ms, speedup %.2fx%n",
+            (t1 - t0) / 1e6, (t2 - t1) / 1e6, (double) (t1 - t0) / (t2 - t1));
+      }
+      Clinic clinic = Clinic.getInstance();
+      clinic.clearState();
+      long t0 = System.nanoTime();
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        clinic.readIntoModel(reader);
+      }
+      System.out.printf("readIntoModel: %.1f ms%n", (System.nanoTime() - t0) / 1e6);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Writes a spec file with one room, one staff member, and random visits.
+   *
+   * @param file the file to write
+   * @param n the number of visits
+   * @return the number of lines before the visit lines
+   * @throws IOException if the file cannot be written
+   */
+  private static int writeSpec(Path file, int n) throws IOException {
+    Random random = new Random(42);
+    LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0);
+    long minutes = 24L * 365 * 24 * 60;
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write("Benchmark Clinic\n1\n0 0 10 10 waiting Waiting Room\n");
+      writer.write("1\nphysician Amy Adams doctoral 1234567890\n");
+      writer.write(PATIENTS + "\n");
+      for (int i = 1; i <= PATIENTS; i++) {
+        writer.write("1 First" + i + " Last" + i + " 1980/01/01\n");
+      }
+      writer.write(n + "\n");
+      for (int i = 0; i < n; i++) {
+        LocalDateTime time = start.plusMinutes((long) (random.nextDouble() * minutes));
+        writer.write(String.format(Locale.ROOT, "%d %s %.1f %s%n",
+            1 + random.nextInt(PATIENTS), time.format(formatter), 35 + random.nextInt(60) / 10.0,
+            COMPLAINTS[random.nextInt(COMPLAINTS.length)]));
+      }
+    }
+    return 7 + PATIENTS;
+  }
+
+  /**
+   * Parses the visit lines like the previous parser.
+   *
+   * @param file the spec file
+   * @param headerLines the number of lines before the visit lines
+   * @param n the number of visits
+   * @return a checksum of the parsed fields
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseLegacy(Path file, int headerLines, int n) throws IOException {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    long checksum = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < headerLines; i++) {
+        reader.readLine();
+      }
+      for (int i = 0; i < n; i++) {
+        String[] visitData = reader.readLine().split("[\\s,]+");
+        int patientId = Integer.parseInt(visitData[0]);
+        LocalDateTime time = LocalDateTime.parse(visitData[1] + " " + visitData[2], formatter);
+        double temperature = Double.parseDouble(visitData[3]);
+        String complaint = Arrays.stream(visitData, 4, visitData.length)
+            .collect(Collectors.joining(" "));
+        checksum += patientId + time.getMinute() + (long) (temperature * 10)
+            + complaint.length();
+      }
+    }
+    return checksum;
+  }
+
+  /**
+   * Parses the visit lines with the tokenizer.
+   *
+   * @param file the spec file
+   * @param headerLines the number of lines before the visit lines
+   * @param n the number of visits
+   * @return a checksum of the parsed fields
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseTokenized(Path file, int headerLines, int n) throws IOException {
+    long checksum = 0;
+    try (SpecTokenizer reader =
+        new SpecTokenizer(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      for (int i = 0; i < headerLines; i++) {
+        reader.nextLine();
+      }
+      for (int i = 0; i < n; i++) {
+        reader.requireLine();
+        int patientId = reader.nextInt();
+        LocalDateTime time = reader.nextDateTime();
+        double temperature = reader.nextDouble();
+        String complaint = reader.rest();
+        checksum += patientId + time.getMinute() + (long) (temperature * 10)
+            + complaint.length();
+      }
+    }
+    return checksum;
+  }
+}
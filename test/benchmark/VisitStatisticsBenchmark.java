@@ -0,0 +1,65 @@
+package benchmark;
+
+import clinic.VisitStatistics;
+import clinic.VisitStore;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A benchmark of {@link VisitStatistics#compute}, which times the statistics of ten years of
+ * synthetic visits on fork-join pools of 1, 2, 4, ... threads up to the number of cores, 
+ * and prints the speedup over a single thread. With a single core only the single-thread 
+ * time is measured, since there is no speedup to observe.
+ * 
+ * Usage: java benchmark.VisitStatisticsBenchmark [number of visits, default 10000000]
+ */
+public class VisitStatisticsBenchmark {
+  private static final int RUNS = 5;
+
+  /**
+   * Runs the benchmark.
+   * 
+   * @param args the optional number of visits
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    VisitStore store = VisitStore.getInstance();
+    Random random = new Random(42);
+    LocalDateTime start = LocalDateTime.of(2014, 1, 1, 0, 0);
+    long minutes = 10L * 365 * 24 * 60;
+    int[] rows = new int[n];
+    for (int i = 0; i < n; i++) {
+      rows[i] = store.add(random.nextInt(100000), start.plusMinutes(minutes * i / n), 
+          "Complaint " + random.nextInt(300), 35 + random.nextInt(80) / 10.0);
+    }
+    VisitStore.Columns columns = store.columns();
+    
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.printf("Available cores: %d%s%n", cores, 
+        cores == 1 ? ", speedup not measured" : "");
+    double baseline = 0;
+    for (int threads = 1; ; threads = Math.min(cores, threads * 2)) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      VisitStatistics.compute(columns, rows, pool); // warm up
+      long best = Long.MAX_VALUE;
+      VisitStatistics stats = null;
+      for (int r = 0; r < RUNS; r++) {
+        long t0 = System.nanoTime();
+        stats = VisitStatistics.compute(columns, rows, pool);
+        best = Math.min(best, System.nanoTime() - t0);
+      }
+      pool.shutdown();
+      double ms = best / 1e6;
+      if (threads == 1) {
+        baseline = ms;
+      }
+      System.out.printf("%2d threads: %8.1f ms, %d visits, fever rate %.3f", 
+          threads, ms, stats.getVisitCount(), stats.getFeverRate());
+      System.out.println(threads == 1 ? "" : String.format(", speedup %.2fx", baseline / ms));
+      if (threads == cores) {
+        break;
+      }
+    }
+  }
+}
@@ -1,14 +1,25 @@
 package controllertest;
 
 import clinic.ClinicInterface;
+import clinic.CohortQuery;
+import clinic.HyperLogLog;
+import clinic.OccupancyHistory;
 import clinic.PatientInterface;
 import clinic.RoomInterface;
 import clinic.StaffInterface;
+import clinic.VisitRecordInterface;
+import clinic.VisitStatistics;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class implements {@link ClinicInterface} and represents a mock Clinic model that 
@@ -74,6 +85,135 @@ public class MockModel implements ClinicInterface {
     return mockPatients;
   }
   
+  @Override
+  public int getVersion() {
+    log.append("getVersion\n");
+    return 0;
+  }
+  
+  @Override
+  public List<PatientInterface> getPatientsInRoom(RoomInterface room) {
+    log.append("getPatientsInRoom: room = " + room.getRoomName() + "\n");
+    return mockPatients;
+  }
+  
+  @Override
+  public List<PatientInterface> searchPatients(String query, int limit) {
+    log.append("searchPatients: query = " + query + ", limit = " + limit + "\n");
+    return mockPatients;
+  }
+  
+  @Override
+  public VisitRecordInterface addVisitRecord(PatientInterface patient, 
+      String registrationDateTime, String chiefComplaint, double bodyTemperature) {
+    log.append("addVisitRecord: patient = " + patient.getFirstName() 
+        + ", registrationDateTime = " + registrationDateTime + "\n");
+    return null;
+  }
+  
+  @Override
+  public List<PatientInterface> getPatientsVisitedBetween(LocalDateTime from, LocalDateTime to) {
+    log.append("getPatientsVisitedBetween: from = " + from + ", to = " + to + "\n");
+    return mockPatients;
+  }
+  
+  @Override
+  public List<PatientInterface> getDormantPatients(LocalDate today) {
+    log.append("getDormantPatients: today = " + today + "\n");
+    return mockPatients;
+  }
+  
+  @Override
+  public List<PatientInterface> listFrequentPatients(int threshold, int windowDays, 
+      LocalDate today) {
+    log.append("listFrequentPatients: threshold = " + threshold 
+        + ", windowDays = " + windowDays + ", today = " + today + "\n");
+    return mockPatients;
+  }
+  
+  @Override
+  public Map<String, Long> getTopComplaints(LocalDateTime from, LocalDateTime to, int k) {
+    log.append("getTopComplaints: from = " + from + ", to = " + to + ", k = " + k + "\n");
+    return new LinkedHashMap<>();
+  }
+  
+  @Override
+  public VisitStatistics getVisitStatistics(LocalDateTime from, LocalDateTime to) {
+    log.append("getVisitStatistics: from = " + from + ", to = " + to + "\n");
+    return new VisitStatistics();
+  }
+  
+  @Override
+  public StaffInterface leastLoadedClinician(String jobTitle) {
+    log.append("leastLoadedClinician: jobTitle = " + jobTitle + "\n");
+    return null;
+  }
+  
+  @Override
+  public List<StaffInterface> listClinicalStaffByWorkload() {
+    log.append("listClinicalStaffByWorkload\n");
+    return new ArrayList<>();
+  }
+  
+  @Override
+  public HyperLogLog getUniquePatientSketch(LocalDate from, LocalDate to) {
+    log.append("getUniquePatientSketch: from = " + from + ", to = " + to + "\n");
+    return new HyperLogLog();
+  }
+  
+  @Override
+  public long countUniquePatients(LocalDate from, LocalDate to, boolean exact) {
+    log.append("countUniquePatients: from = " + from + ", to = " + to 
+        + ", exact = " + exact + "\n");
+    return 0;
+  }
+  
+  @Override
+  public List<OccupancyHistory.Sample> getOccupancyHistory(RoomInterface room, 
+      LocalDateTime from, LocalDateTime to) {
+    log.append("getOccupancyHistory: room = " + room.getRoomName() 
+        + ", from = " + from + ", to = " + to + "\n");
+    return new ArrayList<>();
+  }
+  
+  @Override
+  public CohortQuery queryPatients() {
+    log.append("queryPatients\n");
+    return null;
+  }
+  
+  @Override
+  public RoomInterface findRoomById(int id) {
+    log.append("findRoomById: id = " + id + "\n");
+    return mockRoom;
+  }
+  
+  @Override
+  public StaffInterface findStaffById(int id) {
+    log.append("findStaffById: id = " + id + "\n");
+    return mockStaff;
+  }
+  
+  @Override
+  public PatientInterface findPatientById(int id) {
+    log.append("findPatientById: id = " + id + "\n");
+    return mockPatient;
+  }
+  
+  @Override
+  public List<StaffInterface> getAssignedStaff(PatientInterface patient) {
+    log.append("getAssignedStaff: patient = " 
+        + patient.getFirstName() + " " + patient.getLastName() + "\n");
+    return mockStaffs;
+  }
+  
+  @Override
+  public List<StaffInterface> getEverAssignedStaff(PatientInterface patient) {
+    log.append("getEverAssignedStaff: patient = " 
+        + patient.getFirstName() + " " + patient.getLastName() + "\n");
+    return mockStaffs;
+  }
+  
   @Override
   public void readIntoModel(Reader source) 
       throws IllegalArgumentException, IOException { 
@@ -83,12 +223,32 @@ public class MockModel implements ClinicInterface {
         + "\ncontent = " + line + "\n");
   }
   
+  @Override
+  public void readIntoModel(Path file) throws IllegalArgumentException, IOException {
+    log.append("readIntoModel:\nfile = " + file + "\n");
+  }
+  
+  @Override
+  public void saveSnapshot(Path file) throws IOException {
+    log.append("saveSnapshot: file = " + file + "\n");
+  }
+  
+  @Override
+  public void loadSnapshot(Path file) throws IllegalArgumentException, IOException {
+    log.append("loadSnapshot: file = " + file + "\n");
+  }
+  
   @Override
   public void registerPatient(PatientInterface patient) {
     log.append("registerPatient: patient = " 
         + patient.getFirstName() + " " + patient.getLastName() + "\n");
   }
   
+  @Override
+  public void registerPatients(Collection<PatientInterface> patients) {
+    log.append("registerPatients: patients = " + patients.size() + "\n");
+  }
+  
   @Override
   public void registerClinicalStaff(StaffInterface staff) {
     log.append("registerClinicalStaff: staff = " 
@@ -109,6 +269,12 @@ public class MockModel implements ClinicInterface {
         + staff.getFirstName() + " " + staff.getLastName() + "\n");
   }
   
+  @Override
+  public void changeStaffJobTitle(StaffInterface staff, String jobTitle) {
+    log.append("changeStaffJobTitle: staff = " 
+        + staff.getFirstName() + " " + staff.getLastName() + ", jobTitle = " + jobTitle + "\n");
+  }
+  
   @Override
   public void assignPatientToRoom(PatientInterface patient, RoomInterface room) 
       throws IllegalStateException {
@@ -1,15 +1,33 @@
 package modeltest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import clinic.Clinic;
 import clinic.ClinicalStaff;
 import clinic.Patient;
+import clinic.PatientInterface;
+import clinic.Room;
+import clinic.RoomInterface;
+import clinic.StaffInterface;
+import clinic.VisitStore;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -73,6 +91,198 @@ public class ClinicTest {
             .findFirst().orElse(null).getRoomType());
   }
   
+  /**
+   * Test readIntoModel() from a memory-mapped file, expect the same model as from a Reader.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testReadMappedFile() throws IllegalArgumentException, IOException {
+    Path file = Paths.get("res", "clinicfile.txt");
+    clinic.readIntoModel(Files.newBufferedReader(file));
+    String expected = clinic.toString() + "\n" + clinic.seatingChart() 
+        + clinic.getPatients().get(5).getVisitRecords();
+    clinic.clearState();
+    clinic.readIntoModel(file);
+    assertEquals(expected, clinic.toString() + "\n" + clinic.seatingChart() 
+        + clinic.getPatients().get(5).getVisitRecords());
+  }
+  
+  /**
+   * Test reading the same file after clearState(), expect the visit rows of the old model 
+   * to be left out of the new store, and its patients to still read their visit records.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testReloadClearsVisitStore() throws IllegalArgumentException, IOException {
+    Path file = Paths.get("res", "clinicfile.txt");
+    clinic.readIntoModel(file);
+    int rows = VisitStore.getInstance().size();
+    PatientInterface stale = clinic.getPatients().get(5);
+    String expected = stale.getVisitRecords().toString();
+    String expectedPatient = stale.toString();
+    
+    clinic.clearState();
+    assertEquals(0, VisitStore.getInstance().size());
+    clinic.readIntoModel(file);
+    assertEquals(rows, VisitStore.getInstance().size());
+    assertEquals(expected, clinic.getPatients().get(5).getVisitRecords().toString());
+    assertEquals(expected, stale.getVisitRecords().toString());
+    assertEquals(expectedPatient, stale.toString());
+  }
+  
+  /**
+   * Test saveSnapshot() and loadSnapshot() after changes to the model, expect the same 
+   * rooms, staff, patients, assignments and visit records as before saving.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testSnapshotRoundTrip() throws IllegalArgumentException, IOException {
+    clinic.readIntoModel(Paths.get("res", "clinicfile.txt"));
+    List<StaffInterface> staff = clinic.getStaff();
+    List<PatientInterface> patients = clinic.getPatients();
+    clinic.assignStaffToPatient(staff.get(0), patients.get(1));
+    clinic.assignStaffToPatient(staff.get(1), patients.get(1));
+    clinic.unassignStaffFromPatient(staff.get(1), patients.get(1));
+    clinic.assignStaffToPatient(staff.get(4), patients.get(3));
+    clinic.sendPatientHome(patients.get(3), staff.get(0));
+    clinic.deactivateClinicalStaff(staff.get(6));
+    clinic.addVisitRecord(patients.get(2), "2024/10/07 10:30", "Mal de tête", 38.25);
+    String expected = snapshotState();
+    int leastLoaded = clinic.leastLoadedClinician("NURSE").getId();
+    
+    Path file = Files.createTempFile("clinic", ".snapshot");
+    try {
+      clinic.saveSnapshot(file);
+      clinic.clearState();
+      clinic.loadSnapshot(file);
+      assertEquals(expected, snapshotState());
+      assertEquals(leastLoaded, clinic.leastLoadedClinician("NURSE").getId());
+    } finally {
+      Files.delete(file);
+    }
+  }
+  
+  /**
+   * Test loadSnapshot() with a text file and with a corrupted snapshot, expect 
+   * IllegalArgumentException and the model unchanged.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testInvalidSnapshot() throws IllegalArgumentException, IOException {
+    clinic.readIntoModel(Paths.get("res", "clinicfile.txt"));
+    String expected = snapshotState();
+    Path file = Files.createTempFile("clinic", ".snapshot");
+    try {
+      try {
+        clinic.loadSnapshot(Paths.get("res", "clinicfile.txt"));
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Not a clinic snapshot.", e.getMessage());
+      }
+      clinic.saveSnapshot(file);
+      byte[] bytes = Files.readAllBytes(file);
+      bytes[bytes.length / 2] ^= 1;
+      Files.write(file, bytes);
+      try {
+        clinic.loadSnapshot(file);
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Snapshot checksum mismatch.", e.getMessage());
+      }
+      bytes[7] = 2; // the last byte of the version
+      Files.write(file, bytes);
+      try {
+        clinic.loadSnapshot(file);
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Unsupported snapshot version 2.", e.getMessage());
+      }
+      assertEquals(expected, snapshotState());
+    } finally {
+      Files.delete(file);
+    }
+  }
+  
+  /**
+   * Test loadSnapshot() with a snapshot cut short but with a valid checksum, expect 
+   * IllegalArgumentException and an empty model, and saveSnapshot() failing to keep the 
+   * file it would replace.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testMalformedSnapshot() throws IllegalArgumentException, IOException {
+    clinic.readIntoModel(Paths.get("res", "clinicfile.txt"));
+    Path file = Files.createTempFile("clinic", ".snapshot");
+    try {
+      clinic.saveSnapshot(file);
+      byte[] saved = Files.readAllBytes(file);
+      int end = saved.length / 2;
+      CRC32 crc = new CRC32();
+      crc.update(saved, 0, end);
+      byte[] bytes = Arrays.copyOf(saved, end + 4);
+      ByteBuffer.wrap(bytes).putInt(end, (int) crc.getValue());
+      Files.write(file, bytes);
+      try {
+        clinic.loadSnapshot(file);
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Malformed clinic snapshot.", e.getMessage());
+      }
+      assertTrue(clinic.getRooms().isEmpty() && clinic.getPatients().isEmpty() 
+          && clinic.getStaff().isEmpty());
+      assertEquals(0, VisitStore.getInstance().size());
+      
+      clinic.readIntoModel(Paths.get("res", "clinicfile.txt"));
+      clinic.getStaff().get(0).assignToPatient(new Patient("Not", "Registered", "1981/01/01"));
+      try {
+        clinic.saveSnapshot(file);
+        fail("Expected IllegalStateException but not happening.");
+      } catch (IllegalStateException e) {
+        assertEquals("Cannot save an assignment to a patient not in the clinic.", 
+            e.getMessage());
+      }
+      assertTrue(Arrays.equals(bytes, Files.readAllBytes(file)));
+      String prefix = file.getFileName().toString();
+      try (Stream<Path> siblings = Files.list(file.getParent())) {
+        assertEquals("No temporary file left", 0, siblings.map(p -> p.getFileName().toString())
+            .filter(name -> name.startsWith(prefix) && name.endsWith(".tmp")).count());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+  
+  /**
+   * Helper method to render the state of the model kept in a snapshot, with entity IDs.
+   * 
+   * @return the rendered state
+   */
+  private String snapshotState() {
+    StringBuilder state = new StringBuilder(clinic.toString() + "\n" + clinic.seatingChart());
+    for (RoomInterface r : clinic.getRooms()) {
+      state.append(clinic.roomInfo(r));
+    }
+    for (PatientInterface p : clinic.getPatients()) {
+      state.append(p.getId()).append(p).append(p.getVisitRecords())
+          .append(clinic.getAssignedStaff(p)).append(clinic.getEverAssignedStaff(p));
+    }
+    for (StaffInterface s : clinic.getStaff()) {
+      state.append(s.getId()).append(s).append(s.isActive())
+          .append(s.getAssignedPatients()).append(s.getEverAssigned());
+    }
+    return state.toString();
+  }
+  
   
   /**
    * This test is expected to throw exception:
@@ -125,6 +335,65 @@ public class ClinicTest {
     }
   }
 
+
+  /**
+   * This test is expected to throw exception:
+   * IllegalArgumentException with message "Invalid room type."
+   * Since the second room has an invalid type, it is rejected before the third room, 
+   * which overlaps the first room.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testInvalidRoomBeforeOverlap() throws IllegalArgumentException, IOException {
+    String clinicData = "Cybernetic Implant Clinic\n"
+        + "3\n"
+        + "28  0 35  5 waiting Front Waiting Room\n"
+        + "40  0 45  5 lounge Lounge\n"
+        + "35  5 40 11 exam Triage\n"
+        + "0\n"
+        + "0\n";
+    try {
+      clinic.readIntoModel(new StringReader(clinicData));
+      fail("Expected IllegalArgumentException but not happening.");
+    } catch (IllegalArgumentException e) {
+      // expected exception
+      assertEquals("Invalid room type.", e.getMessage());
+    }
+    assertEquals(1, clinic.getRooms().size());
+  }
+  
+  /**
+   * Test rooms with the edges out of order, expect an overlap with an existing room to be 
+   * reported before the invalid coordinates, as each room is compared before it is created.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testInvalidRoomOverlap() throws IllegalArgumentException, IOException {
+    String[] roomLines = {"35  5 30  0 exam Triage\n", "45 11 40  6 exam Triage\n"};
+    String[] messages = {"Overlap with existing rooms.", "Invalid room coordinates."};
+    for (int i = 0; i < roomLines.length; i++) {
+      clinic.clearState();
+      String clinicData = "Cybernetic Implant Clinic\n"
+          + "3\n"
+          + "28  0 35  5 waiting Front Waiting Room\n"
+          + roomLines[i]
+          + "28  0 35  5 exam Same As Waiting\n"
+          + "0\n"
+          + "0\n";
+      try {
+        clinic.readIntoModel(new StringReader(clinicData));
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals(messages[i], e.getMessage());
+      }
+      assertEquals(1, clinic.getRooms().size());
+    }
+  }
+
   
   /**
    * This test is expected to throw exception:
@@ -148,6 +417,35 @@ public class ClinicTest {
       assertEquals("NPI should be a 10-digits number.", e.getMessage());
     }
   }
+
+
+  /**
+   * This test is expected to throw exception:
+   * IllegalArgumentException with message "Line 9: Unreasonable body temperature."
+   * Since the second visit in the specification data has an unreasonable temperature.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testInvalidVisitLine() throws IllegalArgumentException, IOException {
+    String clinicData = "Cybernetic Implant Clinic\n"
+        + "1\n"
+        + "28  0 35  5 waiting Front Waiting Room\n"
+        + "0\n"
+        + "1\n"
+        + "1 Aandi Acute 1981/01/01\n"
+        + "2\n"
+        + "1 2021/01/01 10:00 37.1 Chest pain\n"
+        + "1 2021/01/02 10:00 73.1 Chest pain\n";
+    try {
+      clinic.readIntoModel(new StringReader(clinicData));
+      fail("Expected IllegalArgumentException but not happening.");
+    } catch (IllegalArgumentException e) {
+      // expected exception
+      assertEquals("Line 9: Unreasonable body temperature.", e.getMessage());
+    }
+  }
   
   
   /**
@@ -334,4 +632,552 @@ public class ClinicTest {
         + "  * Patients: Beth Bunion\n", 
         result);
   }
+  
+  /**
+   * Test the room occupancy kept by Clinic across registration, room assignment, 
+   * and sending patients home.
+   * 1. A registered patient pre-assigned to the waiting room shows up in the seating chart.
+   * 2. Moving the EXAM room occupant out makes the EXAM room available again.
+   * 3. A patient sent home no longer shows up in any room.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testRoomOccupancy() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    Patient newPatient = new Patient("John", "Doe", "1983/03/03");
+    newPatient.assignToRoom(clinic.getRooms().get(0));
+    clinic.registerPatient(newPatient);
+    assertEquals(
+        "Room: 1 | Room Name: Front Waiting Room | Room Type: WAITING\n"
+        + "  * Patients: Aandi Acute, John Doe\n"
+        + "Room: 2 | Room Name: Triage | Room Type: EXAM\n"
+        + "  * Patients: Beth Bunion\n", 
+        clinic.seatingChart());
+    // move patient2 out of the EXAM room, then patient3 can take it
+    clinic.assignPatientToRoom(clinic.getPatients().get(1), clinic.getRooms().get(0));
+    clinic.assignPatientToRoom(newPatient, clinic.getRooms().get(1));
+    // send patient1 home
+    clinic.sendPatientHome(clinic.getPatients().get(0), clinic.getStaff().get(0));
+    assertEquals(
+        "Room: 1 | Room Name: Front Waiting Room | Room Type: WAITING\n"
+        + "  * Patients: Beth Bunion\n"
+        + "Room: 2 | Room Name: Triage | Room Type: EXAM\n"
+        + "  * Patients: John Doe\n", 
+        clinic.seatingChart());
+  }
+  
+  /**
+   * Test Clinic.getAssignedStaff() and Clinic.getEverAssignedStaff().
+   * 1. Assign two clinical staff to patient1, both are listed in roomInfo().
+   * 2. Unassign one of them, it stays in the ever-assigned list only.
+   * 3. Send patient1 home, no staff is assigned any more.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testAssignedStaff() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    ClinicalStaff nurse = new ClinicalStaff("NURSE", "Mary", "Doe", "MASTERS", "5678901234");
+    clinic.registerClinicalStaff(nurse);
+    Patient patient1 = (Patient) clinic.getPatients().get(0);
+    clinic.assignStaffToPatient(nurse, patient1);
+    clinic.assignStaffToPatient(clinic.getStaff().get(0), patient1);
+    assertEquals("[Dr. Amy Anguish, Nurse Mary Doe]", 
+        clinic.getAssignedStaff(patient1).toString());
+    assertEquals(
+        "Room Number: 1 | Room Name: Front Waiting Room | Room Type: WAITING\n"
+        + "  * Patient: Aandi Acute, assigned clinical staff: Dr. Amy Anguish, Nurse Mary Doe\n"
+        + "    - No visit records\n", 
+        clinic.roomInfo(clinic.getRooms().get(0)));
+    // unassign the physician
+    clinic.unassignStaffFromPatient(clinic.getStaff().get(0), patient1);
+    assertEquals("[Nurse Mary Doe]", clinic.getAssignedStaff(patient1).toString());
+    assertEquals("[Dr. Amy Anguish, Nurse Mary Doe]", 
+        clinic.getEverAssignedStaff(patient1).toString());
+    // send patient1 home
+    clinic.sendPatientHome(patient1, clinic.getStaff().get(0));
+    assertEquals("[]", clinic.getAssignedStaff(patient1).toString());
+    assertEquals("[]", nurse.getAssignedPatients().toString());
+    assertEquals(2, clinic.getEverAssignedStaff(patient1).size());
+  }
+  
+  /**
+   * Test that roomInfo() and seatingChart() reuse their rendered text until a room changes.
+   * 1. Rendering twice without changes returns the same text instance.
+   * 2. A staff assignment or a new last visit changes the room info of the patient's room.
+   * 3. Moving a patient changes the seating chart lines of both rooms.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testRenderedTextCache() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    RoomInterface waiting = clinic.getRooms().get(0);
+    PatientInterface aandi = clinic.getPatients().get(0);
+    String info = clinic.roomInfo(waiting);
+    String chart = clinic.seatingChart();
+    assertTrue(info == clinic.roomInfo(waiting));
+    assertTrue(chart == clinic.seatingChart());
+    
+    clinic.assignStaffToPatient(clinic.getStaff().get(0), aandi);
+    clinic.addVisitRecord(aandi, "2024/10/07 09:00", "Headache", 37.1);
+    assertEquals(
+        "Room Number: 1 | Room Name: Front Waiting Room | Room Type: WAITING\n"
+        + "  * Patient: Aandi Acute, assigned clinical staff: Dr. Amy Anguish\n"
+        + "    - Last visit on: 2024/10/07 09:00, Body Temperature: 37.1°C, "
+        + "Chief Complaint: Headache\n", 
+        clinic.roomInfo(waiting));
+    assertTrue("A visit does not change the seating chart", chart == clinic.seatingChart());
+    
+    clinic.assignPatientToRoom(clinic.getPatients().get(1), waiting);
+    assertEquals(
+        "Room: 1 | Room Name: Front Waiting Room | Room Type: WAITING\n"
+        + "  * Patients: Aandi Acute, Beth Bunion\n"
+        + "Room: 2 | Room Name: Triage | Room Type: EXAM\n"
+        + "  * Patients: none\n", 
+        clinic.seatingChart());
+  }
+  
+  /**
+   * Test Clinic.registerPatient() and Clinic.registerPatients() with duplicate patients.
+   * 1. Registering an existing patient again, expect IllegalStateException.
+   * 2. Registering a batch with conflicts, expect IllegalStateException listing every 
+   *    conflict, and no patient in the batch is registered.
+   * 3. Registering a batch without conflicts, expect all patients registered.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testRegisterPatients() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    try {
+      clinic.registerPatient(new Patient("Aandi", "Acute", "1981/01/01"));
+      fail("Expected IllegalStateException but not happening.");
+    } catch (IllegalStateException e) {
+      assertEquals("This patient is already registered.", e.getMessage());
+    }
+    try {
+      clinic.registerPatients(Arrays.asList(
+          new Patient("John", "Doe", "1983/03/03"), 
+          new Patient("Beth", "Bunion", "1982/02/02"), 
+          new Patient("John", "Doe", "1983/03/03")));
+      fail("Expected IllegalStateException but not happening.");
+    } catch (IllegalStateException e) {
+      assertEquals("These patients are already registered: "
+          + "Beth Bunion (1982-02-02), John Doe (1983-03-03)", e.getMessage());
+    }
+    assertEquals(2, clinic.getPatients().size());
+    clinic.registerPatients(Arrays.asList(
+        new Patient("John", "Doe", "1983/03/03"), 
+        new Patient("Jane", "Doe", "1983/03/03")));
+    assertEquals(4, clinic.getPatients().size());
+    assertEquals("Jane", clinic.getPatients().get(3).getFirstName());
+  }
+  
+  /**
+   * Test Clinic.findRoomById(), Clinic.findStaffById(), and Clinic.findPatientById(), 
+   * including IDs that are not in the clinic.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testFindById() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    assertEquals("Triage", clinic.findRoomById(2).getRoomName());
+    assertEquals("Frank", clinic.findStaffById(2).getFirstName());
+    assertEquals("Aandi", clinic.findPatientById(1).getFirstName());
+    assertEquals(null, clinic.findRoomById(0));
+    assertEquals(null, clinic.findStaffById(3));
+    assertEquals(null, clinic.findPatientById(-1));
+    // newly registered patient can be found
+    Patient newPatient = new Patient("John", "Doe", "1983/03/03");
+    clinic.registerPatient(newPatient);
+    assertEquals(newPatient, clinic.findPatientById(3));
+  }
+  
+  /**
+   * Test the read-only snapshots returned by Clinic.getRooms(), Clinic.getStaff(), and 
+   * Clinic.getPatients(), and the model version from Clinic.getVersion().
+   * 1. Reading twice without changes returns the same snapshot and version.
+   * 2. The snapshot cannot be modified.
+   * 3. Registering a patient gives a new patients snapshot and a newer version, while 
+   *    the previous snapshot is left unchanged.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testSnapshots() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    List<PatientInterface> before = clinic.getPatients();
+    int version = clinic.getVersion();
+    assertTrue(before == clinic.getPatients());
+    assertTrue(clinic.getRooms() == clinic.getRooms());
+    assertEquals(version, clinic.getVersion());
+    try {
+      before.clear();
+      fail("Expected UnsupportedOperationException but not happening.");
+    } catch (UnsupportedOperationException e) {
+      // expected exception
+    }
+    clinic.registerPatient(new Patient("John", "Doe", "1983/03/03"));
+    assertTrue(clinic.getVersion() > version);
+    assertEquals(2, before.size());
+    assertEquals(3, clinic.getPatients().size());
+  }
+  
+  /**
+   * Test that patients refer to the shared room instances of the clinic.
+   * 1. Assigning a patient to a copy of a room stores the clinic's own room instance.
+   * 2. A copy of the patient shares the same room instance.
+   * 
+   * @throws IllegalArgumentException if specification data is invalid
+   * @throws IOException if file/string access has problems
+   */
+  @Test
+  public void testSharedRoomInstances() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    Patient patient1 = (Patient) clinic.getPatients().get(0);
+    assertTrue(patient1.getAssignedRoom() == clinic.getRooms().get(0));
+    // move patient2 away, then assign patient1 with a copy of the EXAM room
+    clinic.assignPatientToRoom(clinic.getPatients().get(1), clinic.getRooms().get(0));
+    clinic.assignPatientToRoom(patient1, new Room((Room) clinic.getRooms().get(1)));
+    assertTrue(patient1.getAssignedRoom() == clinic.getRooms().get(1));
+    assertTrue(new Patient(patient1).getAssignedRoom() == clinic.getRooms().get(1));
+    assertEquals("[Patient Name: Aandi Acute, Date Of Birth: 1981/01/01\n- No visit records]", 
+        clinic.getPatientsInRoom(clinic.getRooms().get(1)).toString());
+  }
+
+  /**
+   * Test Clinic.searchPatients() with prefix, multi-word and misspelled queries.
+   */
+  @Test
+  public void testSearchPatients() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    clinic.registerPatient(new Patient("Bethany", "Acorn", "1990/02/02"));
+    clinic.registerPatient(new Patient("John", "Doe", "1983/03/03"));
+    
+    // prefix matches in alphabetical order of the matched word
+    assertEquals("[Bethany Acorn, Aandi Acute]", names(clinic.searchPatients("ac", 10)));
+    assertEquals("[Beth Bunion, Bethany Acorn]", names(clinic.searchPatients("BETH", 10)));
+    assertEquals("[Beth Bunion]", names(clinic.searchPatients("beth", 1)));
+    // every word must match
+    assertEquals("[Bethany Acorn]", names(clinic.searchPatients("beth ac", 10)));
+    // typo tolerance
+    assertEquals("[Beth Bunion]", names(clinic.searchPatients("bunnion", 10)));
+    assertEquals("[John Doe]", names(clinic.searchPatients("jhon doe", 10)));
+    // no match
+    assertEquals("[]", names(clinic.searchPatients("xyz", 10)));
+    assertEquals("[]", names(clinic.searchPatients("  ", 10)));
+    
+    clinic.clearState();
+    assertEquals("[]", names(clinic.searchPatients("beth", 10)));
+  }
+  
+  /**
+   * Test the clinic-wide visit history filled by readIntoModel(), registerPatient() 
+   * and addVisitRecord(), and queried by getPatientsVisitedBetween().
+   */
+  @Test
+  public void testPatientsVisitedBetween() throws IllegalArgumentException, IOException {
+    String clinicData = "Cybernetic Implant Clinic\n"
+        + "1\n"
+        + "28  0 35  5 waiting Front Waiting Room\n"
+        + "0\n"
+        + "2\n"
+        + "1 Aandi Acute 1981/01/01\n"
+        + "1 Beth Bunion 1982/02/02\n"
+        + "3\n"
+        + "2 2024/01/10 09:00 37.0 Sore throat\n"
+        + "1 2024/02/10 09:00 38.0 Headache\n"
+        + "2 2024/03/10 09:00 36.8 Follow up\n";
+    clinic.readIntoModel(new StringReader(clinicData));
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    Patient john = new Patient("John", "Doe", "1983/03/03");
+    john.addVisitRecord("2024/02/20 10:00", "Cough", 37.5);
+    clinic.registerPatient(john);
+    
+    LocalDateTime jan1 = LocalDateTime.of(2024, 1, 1, 0, 0);
+    LocalDateTime feb10 = LocalDateTime.of(2024, 2, 10, 9, 0);
+    LocalDateTime apr1 = LocalDateTime.of(2024, 4, 1, 0, 0);
+    assertEquals(Arrays.asList(beth, aandi, john), clinic.getPatientsVisitedBetween(jan1, apr1));
+    assertEquals(Arrays.asList(beth), clinic.getPatientsVisitedBetween(jan1, feb10));
+    assertEquals(Arrays.asList(aandi, john, beth), clinic.getPatientsVisitedBetween(feb10, apr1));
+    assertEquals(0, clinic.getPatientsVisitedBetween(apr1, jan1).size());
+    
+    int version = clinic.getVersion();
+    assertEquals("Cough", clinic.addVisitRecord(aandi, "2024/03/15 08:00", "Cough", 37.2)
+        .getChiefComplaint());
+    assertTrue(clinic.getVersion() > version);
+    assertEquals(null, clinic.addVisitRecord(aandi, "2024/03/15 08:00", "Cough", 37.2));
+    assertEquals(Arrays.asList(beth, aandi), 
+        clinic.getPatientsVisitedBetween(LocalDateTime.of(2024, 3, 1, 0, 0), apr1));
+    try {
+      clinic.addVisitRecord(new Patient("Jane", "Doe", "1984/04/04"), 
+          "2024/03/15 08:00", "Cough", 37.2);
+      fail("Expected IllegalStateException but not happening.");
+    } catch (IllegalStateException e) {
+      assertEquals("This patient is not registered.", e.getMessage());
+    }
+  }
+  
+  /**
+   * Test Clinic.getDormantPatients() as visits are added.
+   */
+  @Test
+  public void testDormantPatients() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    LocalDate today = LocalDate.of(2024, 6, 1);
+    assertEquals(0, clinic.getDormantPatients(today).size());
+    
+    clinic.addVisitRecord(aandi, "2023/05/01 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(beth, "2022/01/01 09:00", "Cough", 37.0);
+    assertEquals(Arrays.asList(beth, aandi), clinic.getDormantPatients(today));
+    // an older visit does not change the last visit
+    clinic.addVisitRecord(aandi, "2021/05/01 09:00", "Headache", 37.0);
+    assertEquals(Arrays.asList(beth, aandi), clinic.getDormantPatients(today));
+    // a visit exactly 365 days ago is not dormant
+    clinic.addVisitRecord(beth, "2023/06/02 00:00", "Cough", 37.0);
+    assertEquals(Arrays.asList(aandi), clinic.getDormantPatients(today));
+    assertEquals(Arrays.asList(aandi, beth), clinic.getDormantPatients(today.plusDays(1)));
+  }
+  
+  /**
+   * Test Clinic.listFrequentPatients() as the window slides and visits are added.
+   */
+  @Test
+  public void testFrequentPatients() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    clinic.addVisitRecord(aandi, "2023/01/10 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(aandi, "2023/06/10 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(beth, "2023/03/10 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(beth, "2023/08/10 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(beth, "2023/09/10 09:00", "Cough", 37.0);
+    
+    LocalDate today = LocalDate.of(2023, 12, 31);
+    assertEquals(Arrays.asList(beth, aandi), clinic.listFrequentPatients(2, 365, today));
+    assertEquals(Arrays.asList(beth), clinic.listFrequentPatients(3, 365, today));
+    assertEquals(Arrays.asList(beth, aandi), clinic.listFrequentPatients(1, 365, today));
+    // slide forward: aandi's January visit expires
+    assertEquals(Arrays.asList(beth), clinic.listFrequentPatients(2, 365, today.plusDays(20)));
+    // a visit added in the window is counted at once
+    clinic.addVisitRecord(aandi, "2024/01/15 09:00", "Headache", 37.0);
+    assertEquals(Arrays.asList(beth, aandi), 
+        clinic.listFrequentPatients(2, 365, today.plusDays(20)));
+    // slide further: aandi's June visit expires; then move back
+    assertEquals(Arrays.asList(beth), 
+        clinic.listFrequentPatients(2, 365, LocalDate.of(2024, 7, 1)));
+    assertEquals(Arrays.asList(beth, aandi), clinic.listFrequentPatients(2, 365, today));
+    assertEquals(Arrays.asList(beth), clinic.listFrequentPatients(2, 31, 
+        LocalDate.of(2023, 9, 10)));
+    try {
+      clinic.listFrequentPatients(0, 365, today);
+      fail("Expected IllegalArgumentException but not happening.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Threshold and window must be positive.", e.getMessage());
+    }
+  }
+  
+  /**
+   * Test Clinic.getTopComplaints() over the visits in a period.
+   */
+  @Test
+  public void testTopComplaints() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    clinic.addVisitRecord(aandi, "2023/01/10 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(aandi, "2023/02/10 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(beth, "2023/02/10 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(beth, "2023/03/10 09:00", "Chest pain", 37.0);
+    clinic.addVisitRecord(beth, "2023/04/10 09:00", "Chest pain", 37.0);
+    clinic.addVisitRecord(aandi, "2023/05/10 09:00", "Chest pain", 37.0);
+    
+    LocalDateTime jan1 = LocalDateTime.of(2023, 1, 1, 0, 0);
+    LocalDateTime apr1 = LocalDateTime.of(2023, 4, 1, 0, 0);
+    assertEquals("{Chest pain=3, Cough=2}", 
+        clinic.getTopComplaints(jan1, jan1.plusYears(1), 2).toString());
+    assertEquals("{Cough=2, Chest pain=1, Headache=1}", 
+        clinic.getTopComplaints(jan1, apr1, 5).toString());
+    assertEquals("{}", clinic.getTopComplaints(apr1, jan1, 5).toString());
+    try {
+      clinic.getTopComplaints(jan1, apr1, 0);
+      fail("Expected IllegalArgumentException but not happening.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("The number of top complaints must be positive.", e.getMessage());
+    }
+  }
+  
+  /**
+   * Test Clinic.leastLoadedClinician() as staff are assigned, unassigned and deactivated.
+   */
+  @Test
+  public void testLeastLoadedClinician() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    StaffInterface amy = clinic.getStaff().get(0);
+    StaffInterface bob = new ClinicalStaff("physician", "Bob", "Bones", "doctoral", "1234567891");
+    clinic.registerClinicalStaff(bob);
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    
+    assertTrue(clinic.leastLoadedClinician("PHYSICIAN") == amy);
+    clinic.assignStaffToPatient(amy, aandi);
+    assertTrue(clinic.leastLoadedClinician("physician") == bob);
+    clinic.assignStaffToPatient(bob, aandi);
+    clinic.assignStaffToPatient(bob, beth);
+    assertTrue(clinic.leastLoadedClinician("physician") == amy);
+    assertEquals(List.of(amy, bob), clinic.listClinicalStaffByWorkload());
+    clinic.unassignStaffFromPatient(bob, beth);
+    assertTrue("Ties go to the lowest ID", clinic.leastLoadedClinician("physician") == amy);
+    clinic.sendPatientHome(aandi, amy);
+    assertTrue(clinic.leastLoadedClinician("physician") == amy);
+    clinic.deactivateClinicalStaff(amy);
+    assertTrue(clinic.leastLoadedClinician("physician") == bob);
+    assertEquals(List.of(bob), clinic.listClinicalStaffByWorkload());
+    clinic.changeStaffJobTitle(bob, "nurse");
+    assertEquals(null, clinic.leastLoadedClinician("physician"));
+    assertTrue(clinic.leastLoadedClinician("nurse") == bob);
+    clinic.changeStaffJobTitle(bob, "physician");
+    assertEquals("Non-clinical staff are not indexed", 
+        null, clinic.leastLoadedClinician("reception"));
+    assertEquals(null, clinic.leastLoadedClinician("nurse"));
+  }
+  
+  /**
+   * Test Clinic.getOccupancyHistory() as patients are moved and sent home.
+   */
+  @Test
+  public void testOccupancyHistory() throws IllegalArgumentException, IOException {
+    LocalDateTime start = LocalDateTime.of(2024, 10, 7, 9, 0);
+    clinic.setClock(Clock.fixed(start.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    createSampleInstance();
+    RoomInterface waiting = clinic.getRooms().get(0);
+    RoomInterface triage = clinic.getRooms().get(1);
+    clinic.setClock(Clock.fixed(start.plusHours(1).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    clinic.sendPatientHome(clinic.getPatients().get(1), clinic.getStaff().get(0));
+    clinic.setClock(Clock.fixed(start.plusHours(2).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    clinic.assignPatientToRoom(clinic.getPatients().get(0), triage);
+    
+    assertEquals("[2024-10-07T09:00=0, 2024-10-07T09:00=1, 2024-10-07T10:00=0, "
+        + "2024-10-07T11:00=1]", 
+        clinic.getOccupancyHistory(triage, start, start.plusDays(1)).toString());
+    assertEquals("[2024-10-07T10:30=1, 2024-10-07T11:00=0]", clinic.getOccupancyHistory(
+        waiting, start.plusMinutes(90), start.plusDays(1)).toString());
+  }
+  
+  /**
+   * Test Clinic.countUniquePatients() in estimated and exact modes.
+   */
+  @Test
+  public void testUniquePatients() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    clinic.addVisitRecord(aandi, "2024/10/07 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(aandi, "2024/10/07 15:00", "Headache", 37.0);
+    clinic.addVisitRecord(beth, "2024/10/08 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(aandi, "2024/10/20 09:00", "Headache", 37.0);
+    
+    LocalDate oct7 = LocalDate.of(2024, 10, 7);
+    for (boolean exact : new boolean[] {true, false}) {
+      assertEquals(1, clinic.countUniquePatients(oct7, oct7.plusDays(1), exact));
+      assertEquals(2, clinic.countUniquePatients(oct7, oct7.plusWeeks(1), exact));
+      assertEquals(1, clinic.countUniquePatients(oct7.plusDays(2), oct7.plusMonths(1), exact));
+      assertEquals(0, clinic.countUniquePatients(oct7.plusDays(1), oct7, exact));
+    }
+    assertEquals(2, clinic.getUniquePatientSketch(oct7, oct7.plusMonths(1)).estimate());
+    
+    // Ranges covering whole months and years
+    clinic.addVisitRecord(beth, "2023/12/31 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(aandi, "2025/02/01 09:00", "Headache", 37.0);
+    LocalDate from = LocalDate.of(2023, 6, 1);
+    for (boolean exact : new boolean[] {true, false}) {
+      assertEquals(2, clinic.countUniquePatients(from, LocalDate.of(2026, 1, 1), exact));
+      assertEquals(1, clinic.countUniquePatients(from, LocalDate.of(2024, 1, 1), exact));
+      assertEquals(2, clinic.countUniquePatients(LocalDate.of(2024, 1, 1), 
+          LocalDate.of(2025, 1, 1), exact));
+      assertEquals(1, clinic.countUniquePatients(LocalDate.of(2024, 10, 9), 
+          LocalDate.of(2025, 3, 1), exact));
+    }
+  }
+  
+  /**
+   * Test Clinic.countUniquePatients() with the same patient listed twice in a specification, 
+   * expect both modes to count one patient, identified by name and date of birth.
+   */
+  @Test
+  public void testUniquePatientsSameIdentity() throws IllegalArgumentException, IOException {
+    clinic.readIntoModel(new StringReader("Cybernetic Implant Clinic\n"
+        + "1\n"
+        + "28  0 35  5 waiting Front Waiting Room\n"
+        + "0\n"
+        + "2\n"
+        + "1 Aandi Acute 1981/01/01\n"
+        + "1 Aandi Acute 1981/01/01\n"));
+    clinic.addVisitRecord(clinic.getPatients().get(0), "2024/10/07 09:00", "Headache", 37.0);
+    clinic.addVisitRecord(clinic.getPatients().get(1), "2024/10/07 10:00", "Headache", 37.0);
+    LocalDate oct7 = LocalDate.of(2024, 10, 7);
+    assertEquals(1, clinic.countUniquePatients(oct7, oct7.plusDays(1), true));
+    assertEquals(1, clinic.countUniquePatients(oct7, oct7.plusDays(1), false));
+  }
+  
+  /**
+   * Test Clinic.queryPatients() with each source of candidates and combined filters.
+   */
+  @Test
+  public void testCohortQuery() throws IllegalArgumentException, IOException {
+    createSampleInstance();
+    PatientInterface aandi = clinic.getPatients().get(0);
+    PatientInterface beth = clinic.getPatients().get(1);
+    StaffInterface amy = clinic.getStaff().get(0);
+    clinic.addVisitRecord(aandi, "2024/10/07 09:00", "Cough", 38.5);
+    clinic.addVisitRecord(beth, "2024/10/08 09:00", "Cough", 37.0);
+    clinic.addVisitRecord(beth, "2024/10/09 09:00", "Headache", 38.6);
+    
+    LocalDateTime oct8 = LocalDateTime.of(2024, 10, 8, 0, 0);
+    assertEquals("[Aandi Acute, Beth Bunion]", names(clinic.queryPatients().list()));
+    assertEquals("[Beth Bunion]", names(clinic.queryPatients()
+        .ageBetween(40, 43, LocalDate.of(2025, 1, 15)).list()));
+    assertEquals(1, clinic.queryPatients().visitedBetween(oct8, oct8.plusDays(2)).count());
+    assertEquals("[Aandi Acute, Beth Bunion]", 
+        names(clinic.queryPatients().temperatureBetween(38, 45).list()));
+    assertEquals("Visit filters match the same visit", "[Aandi Acute]", 
+        names(clinic.queryPatients().complaint("Cough").temperatureBetween(38, 45).list()));
+    assertEquals(0, clinic.queryPatients().complaint("Fracture").count());
+    
+    assertEquals("[Aandi Acute]", names(clinic.queryPatients().inRoomType("waiting").list()));
+    assertEquals("[Beth Bunion]", names(clinic.queryPatients().inRoomType("EXAM")
+        .complaint("Headache").list()));
+    assertEquals(0, clinic.queryPatients().inRoomType("exam")
+        .complaint("Cough").temperatureBetween(38, 45).count());
+    
+    clinic.assignStaffToPatient(amy, beth);
+    assertEquals("[Beth Bunion]", names(clinic.queryPatients().assignedTo(amy).list()));
+    assertEquals("[Beth Bunion]", names(clinic.queryPatients().assignedTo(amy)
+        .inRoomType("exam").temperatureBetween(38.6, 38.6).list()));
+    assertEquals(0, clinic.queryPatients().assignedTo(amy)
+        .complaint("Cough").temperatureBetween(38, 45).count());
+  }
+  
+  /**
+   * Helper method to list the full names of patients.
+   * 
+   * @param list the list of patients
+   * @return the full names in list format
+   */
+  private static String names(List<PatientInterface> list) {
+    return list.stream().map(p -> p.getFirstName() + " " + p.getLastName())
+        .collect(Collectors.toList()).toString();
+  }
 }
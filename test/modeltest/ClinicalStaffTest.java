@@ -6,6 +6,8 @@ import static org.junit.Assert.fail;
 
 import clinic.ClinicalStaff;
 import clinic.Patient;
+import clinic.PatientInterface;
+import java.util.SortedSet;
 import org.junit.Test;
 
 /**
@@ -100,6 +102,27 @@ public class ClinicalStaffTest {
   }
   
   
+  /**
+   * Test the assigned patients returned by getAssignedPatients() and getEverAssigned() 
+   * are snapshots, which are not affected by later assignment changes.
+   */
+  @Test
+  public void testAssignedPatientsSnapshot() {
+    ClinicalStaff staff = new ClinicalStaff("NURSE", "Denise", "Danger", "MASTERS", "8877665544");
+    Patient patient1 = new Patient("Aandi", "Acute", "1981/01/01");
+    Patient patient2 = new Patient("Beth", "Bunion", "1982/02/02");
+    staff.assignToPatient(patient1);
+    SortedSet<PatientInterface> before = staff.getAssignedPatients();
+    staff.assignToPatient(patient2);
+    staff.unassignFromPatient(patient1);
+    assertEquals("Snapshot not changed", 1, before.size());
+    assertTrue("Snapshot not changed", before.contains(patient1));
+    assertEquals("Currently assigned", 1, staff.getAssignedPatients().size());
+    assertTrue("Currently assigned", staff.getAssignedPatients().contains(patient2));
+    assertEquals("Ever assigned", 2, staff.getEverAssigned().size());
+  }
+  
+  
   /**
    * Test setActive() to set activation status of staff and isActive() to get status info.
    * If staff is not active (deactivated), cannot be assigned to a patient.
@@ -0,0 +1,62 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import clinic.HyperLogLog;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link HyperLogLog} class.
+ */
+public class HyperLogLogTest {
+
+  /**
+   * Test small counts in the sparse mode, expect exact results and duplicates ignored.
+   */
+  @Test
+  public void testSmallCounts() {
+    HyperLogLog sketch = new HyperLogLog();
+    assertEquals(0, sketch.estimate());
+    for (int i = 0; i < 100; i++) {
+      sketch.add(HyperLogLog.hash("patient " + i));
+      sketch.add(HyperLogLog.hash("patient " + i));
+    }
+    assertEquals(100, sketch.estimate());
+  }
+
+  /**
+   * Test large counts in the dense mode, expect errors within 3 standard errors.
+   */
+  @Test
+  public void testLargeCounts() {
+    for (int n : new int[] {5000, 50000, 500000}) {
+      HyperLogLog sketch = new HyperLogLog();
+      for (int i = 0; i < n; i++) {
+        sketch.add(HyperLogLog.hash("patient " + i));
+      }
+      double error = Math.abs(sketch.estimate() - n) / (double) n;
+      assertTrue("Error " + error + " for " + n, error < 0.05);
+    }
+  }
+
+  /**
+   * Test merge() of overlapping sketches, expect the estimate of the union.
+   */
+  @Test
+  public void testMerge() {
+    HyperLogLog a = new HyperLogLog();
+    HyperLogLog b = new HyperLogLog();
+    for (int i = 0; i < 30000; i++) {
+      a.add(HyperLogLog.hash("patient " + i));
+      b.add(HyperLogLog.hash("patient " + (i + 20000)));
+    }
+    HyperLogLog sparse = new HyperLogLog();
+    sparse.add(HyperLogLog.hash("patient 0"));
+    HyperLogLog union = new HyperLogLog(a).merge(b).merge(sparse);
+    assertTrue(Math.abs(union.estimate() - 50000) < 2500);
+    assertEquals("Merging is idempotent", union.estimate(), 
+        new HyperLogLog(union).merge(a).estimate());
+    assertEquals(new HyperLogLog(b).merge(a).estimate(), union.estimate());
+  }
+}
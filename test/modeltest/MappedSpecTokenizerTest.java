@@ -0,0 +1,75 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import clinic.MappedSpecTokenizer;
+import clinic.SpecTokenizer;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link MappedSpecTokenizer} class.
+ */
+public class MappedSpecTokenizerTest {
+  private static final String CONTENT = "Family Care Clinic\r\n"
+      + "1 2021/01/01 10:00 37.1 Chest pain\n"
+      + "\n"
+      + "0 Zoë Ångström 1981/01/01\r"
+      + "2 2022/02/02 10:00 36.5 Mal de tête, fièvre\r\n"
+      + "last line without terminator";
+
+  /**
+   * Test reading lines through windows of several sizes, including windows ending in the
+   * middle of a line, a UTF-8 character or a \r\n, expect the same lines and tokens as
+   * SpecTokenizer reading the decoded text.
+   *
+   * @throws IOException if the temporary file cannot be written or read
+   */
+  @Test
+  public void testSameAsReader() throws IOException {
+    Path file = Files.createTempFile("clinic", ".txt");
+    try {
+      Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+      for (int windowSize : new int[] {48, 49, 50, 64, 1 << 20}) {
+        SpecTokenizer expected = new SpecTokenizer(new StringReader(CONTENT));
+        try (MappedSpecTokenizer mapped = new MappedSpecTokenizer(file, windowSize)) {
+          while (expected.nextLine()) {
+            assertEquals(true, mapped.nextLine());
+            assertEquals(expected.getLineNumber(), mapped.getLineNumber());
+            assertEquals(expected.getLine(), mapped.getLine());
+            assertEquals(expected.rest(), mapped.rest());
+          }
+          assertEquals("Window size " + windowSize, false, mapped.nextLine());
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Test a line longer than the window, expect IllegalArgumentException.
+   *
+   * @throws IOException if the temporary file cannot be written or read
+   */
+  @Test
+  public void testLineLongerThanWindow() throws IOException {
+    Path file = Files.createTempFile("clinic", ".txt");
+    try {
+      Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+      try (MappedSpecTokenizer mapped = new MappedSpecTokenizer(file, 16)) {
+        mapped.nextLine();
+        fail("Expected IllegalArgumentException but not happening.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Line 1 is longer than the mapped window.", e.getMessage());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
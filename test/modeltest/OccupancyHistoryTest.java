@@ -0,0 +1,71 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+
+import clinic.OccupancyHistory;
+import java.time.ZoneOffset;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link OccupancyHistory} class.
+ */
+public class OccupancyHistoryTest {
+
+  /**
+   * Test query() over ranges, expect the occupancy at the start of the range first.
+   */
+  @Test
+  public void testQuery() {
+    OccupancyHistory history = new OccupancyHistory(10);
+    history.addRoom(2, 0);
+    history.record(2, 60000, 1);
+    history.record(2, 120000, 2);
+    history.record(2, 180000, 1);
+    assertEquals("[1970-01-01T00:00=0, 1970-01-01T00:01=1, 1970-01-01T00:02=2, "
+        + "1970-01-01T00:03=1]", history.query(2, 0, 240000, ZoneOffset.UTC).toString());
+    assertEquals("[1970-01-01T00:01:30=1, 1970-01-01T00:02=2]", 
+        history.query(2, 90000, 180000, ZoneOffset.UTC).toString());
+    assertEquals("[1970-01-01T00:10=1]", 
+        history.query(2, 600000, 700000, ZoneOffset.UTC).toString());
+    assertEquals("[]", history.query(1, 0, 700000, ZoneOffset.UTC).toString());
+    assertEquals("[]", history.query(2, 700000, 0, ZoneOffset.UTC).toString());
+  }
+
+  /**
+   * Test recording more samples than the capacity, expect the oldest to be overwritten.
+   */
+  @Test
+  public void testRingBuffer() {
+    OccupancyHistory history = new OccupancyHistory(3);
+    history.addRoom(1, 0);
+    for (int i = 1; i <= 5; i++) {
+      history.record(1, i * 60000L, i);
+    }
+    assertEquals("[1970-01-01T00:03=3, 1970-01-01T00:04=4, 1970-01-01T00:05=5]", 
+        history.query(1, 0, 600000, ZoneOffset.UTC).toString());
+    history.record(9, 0, 1); // no buffer for the room, ignored
+    history.clear();
+    assertEquals("[]", history.query(1, 0, 600000, ZoneOffset.UTC).toString());
+  }
+
+  /**
+   * Test recording past the initial size of a buffer and then past the capacity, expect
+   * the buffer to grow and then the oldest samples to be overwritten, in time order.
+   */
+  @Test
+  public void testGrowth() {
+    OccupancyHistory history = new OccupancyHistory(10);
+    history.addRoom(0, 0);
+    for (int i = 1; i <= 12; i++) {
+      history.record(0, i * 60000L, i);
+    }
+    assertEquals("[1970-01-01T00:03=3, 1970-01-01T00:04=4, 1970-01-01T00:05=5, "
+        + "1970-01-01T00:06=6, 1970-01-01T00:07=7, 1970-01-01T00:08=8, "
+        + "1970-01-01T00:09=9, 1970-01-01T00:10=10, 1970-01-01T00:11=11, "
+        + "1970-01-01T00:12=12]", history.query(0, 0, 800000, ZoneOffset.UTC).toString());
+    assertEquals("[1970-01-01T00:10=10, 1970-01-01T00:11=11]", 
+        history.query(0, 600000, 720000, ZoneOffset.UTC).toString());
+    assertEquals("[1970-01-01T00:10:30=10]", 
+        history.query(0, 630000, 660000, ZoneOffset.UTC).toString());
+  }
+}
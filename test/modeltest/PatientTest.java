@@ -1,6 +1,8 @@
 package modeltest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import clinic.Patient;
 import clinic.Room;
@@ -64,6 +66,24 @@ public class PatientTest {
     assertEquals("Patient assigned to 2nd room", room2, patient.getAssignedRoom());
   }
 
+  /**
+   * Test equals() and hashCode() identify a patient by ID, which stay the same while 
+   * the room and visit records change, and deepEquals() compares all the fields.
+   */
+  @Test
+  public void testEqualsAndDeepEquals() {
+    Patient patient = new Patient("Aandi", "Acute", "1981/01/01");
+    Patient copy = new Patient(patient);
+    int hash = copy.hashCode();
+    assertTrue(copy.deepEquals(patient));
+    copy.assignToRoom(new Room(5, 0, 10, 5, "WAITING", "Waiting Room"));
+    copy.addVisitRecord("2024/10/01 09:00", "Headache", 37.2);
+    assertEquals(patient, copy);
+    assertEquals(hash, copy.hashCode());
+    assertFalse(copy.deepEquals(patient));
+    assertFalse(patient.equals(new Patient("Aandi", "Acute", "1981/01/01")));
+  }
+
   /**
    * Test patient visit records. The following methods are tested:
    *   1. getter: getVisitRecords()
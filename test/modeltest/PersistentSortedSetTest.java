@@ -0,0 +1,74 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import clinic.PersistentSortedSet;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link PersistentSortedSet} class.
+ */
+public class PersistentSortedSetTest {
+
+  /**
+   * Test plus() and minus(), expect the original set to be left unchanged.
+   */
+  @Test
+  public void testPlusMinusKeepOriginal() {
+    PersistentSortedSet<Integer> empty = PersistentSortedSet.empty();
+    PersistentSortedSet<Integer> one = empty.plus(5);
+    PersistentSortedSet<Integer> two = one.plus(3);
+    assertEquals("[]", empty.toString());
+    assertEquals("[5]", one.toString());
+    assertEquals("[3, 5]", two.toString());
+    assertEquals("[5]", two.minus(3).toString());
+    assertEquals("[3, 5]", two.toString());
+    assertTrue("Adding an existing element returns the same set", two.plus(5) == two);
+    assertTrue("Removing a missing element returns the same set", two.minus(7) == two);
+    assertEquals(3, (int) two.first());
+    assertEquals(5, (int) two.last());
+  }
+
+  /**
+   * Test the set is read-only, expect UnsupportedOperationException.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    PersistentSortedSet<Integer> set = PersistentSortedSet.<Integer>empty().plus(1);
+    set.add(2);
+  }
+
+  /**
+   * Test random insertions and deletions against TreeSet, including range views 
+   * and a custom comparator.
+   */
+  @Test
+  public void testAgainstTreeSet() {
+    Random random = new Random(42);
+    PersistentSortedSet<Integer> set = PersistentSortedSet.empty(Comparator.reverseOrder());
+    TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+    for (int i = 0; i < 2000; i++) {
+      int value = random.nextInt(300);
+      if (random.nextBoolean()) {
+        set = set.plus(value);
+        expected.add(value);
+      } else {
+        set = set.minus(value);
+        expected.remove(value);
+      }
+      assertEquals(expected.size(), set.size());
+    }
+    assertEquals(expected, set);
+    assertEquals(expected.toString(), set.toString());
+    assertEquals(expected.subSet(200, 100).toString(), set.subSet(200, 100).toString());
+    assertEquals(expected.headSet(150).toString(), set.headSet(150).toString());
+    assertEquals(expected.tailSet(150).toString(), set.tailSet(150).toString());
+    for (int i = 0; i < 300; i++) {
+      assertEquals(expected.contains(i), set.contains(i));
+    }
+  }
+}
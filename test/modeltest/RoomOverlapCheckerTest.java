@@ -0,0 +1,86 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+
+import clinic.RoomOverlapChecker;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link RoomOverlapChecker} class.
+ */
+public class RoomOverlapCheckerTest {
+
+  /**
+   * Test rectangles sharing an edge or a corner, expect them to overlap.
+   */
+  @Test
+  public void testTouchingRooms() {
+    RoomOverlapChecker checker = new RoomOverlapChecker();
+    checker.add(0, 0, 5, 5);
+    checker.add(6, 0, 10, 5);
+    checker.add(0, 6, 5, 10);
+    assertEquals(-1, checker.firstOverlap());
+    checker.add(10, 5, 12, 8); // touches the corner of the second room
+    assertEquals(3, checker.firstOverlap());
+    checker.add(0, 0, 1, 1);
+    assertEquals(3, checker.firstOverlap());
+  }
+
+  /**
+   * Test random layouts on a small grid, so that many rooms touch or overlap, expect the
+   * same first overlapping room as checking each room against the rooms before it with
+   * {@link RoomOverlapChecker#intersects}.
+   */
+  @Test
+  public void testSameAsPairwiseCheck() {
+    Random random = new Random(42);
+    for (int run = 0; run < 2000; run++) {
+      int n = 1 + random.nextInt(40);
+      int grid = 10 + random.nextInt(200);
+      int[][] rects = new int[n][];
+      RoomOverlapChecker checker = new RoomOverlapChecker();
+      for (int i = 0; i < n; i++) {
+        int left = random.nextInt(grid);
+        int bottom = random.nextInt(grid);
+        rects[i] = new int[] {left, bottom,
+            left + random.nextInt(grid / 5) - 1, bottom + random.nextInt(grid / 5) - 1};
+        checker.add(rects[i][0], rects[i][1], rects[i][2], rects[i][3]);
+      }
+      assertEquals("Run " + run, pairwiseFirstOverlap(rects), checker.firstOverlap());
+    }
+  }
+
+  /**
+   * Helper method to find the first overlapping rectangle by checking each rectangle
+   * against every rectangle before it, stopping after the first rectangle with edges out
+   * of order as the pairwise check in readRooms did.
+   *
+   * @param rects the rectangles as [left, bottom, right, top]
+   * @return the index of the first overlapping rectangle, or -1 if none overlap
+   */
+  private static int pairwiseFirstOverlap(int[][] rects) {
+    for (int i = 0; i < rects.length; i++) {
+      for (int j = 0; j < i; j++) {
+        if (RoomOverlapChecker.intersects(rects[i][0], rects[i][1], rects[i][2], rects[i][3],
+            rects[j][0], rects[j][1], rects[j][2], rects[j][3])) {
+          return i;
+        }
+      }
+      if (!isValid(rects[i])) { // rejected as an invalid room
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper method to check if a rectangle has its edges in order.
+   *
+   * @param rect the rectangle as [left, bottom, right, top]
+   * @return true if the edges are in order
+   */
+  private static boolean isValid(int[] rect) {
+    return rect[0] <= rect[2] && rect[1] <= rect[3];
+  }
+}
@@ -0,0 +1,124 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import clinic.SpecTokenizer;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link SpecTokenizer} class.
+ */
+public class SpecTokenizerTest {
+
+  /**
+   * Test splitting into lines and tokens, expect the same tokens as split("[\\s,]+").
+   *
+   * @throws IOException if the source cannot be read
+   */
+  @Test
+  public void testTokens() throws IOException {
+    SpecTokenizer tokens = new SpecTokenizer(
+        new StringReader("28  0,35\t5 waiting Front  Waiting Room\r\n\rlast line"));
+    assertTrue(tokens.nextLine());
+    assertEquals(1, tokens.getLineNumber());
+    assertEquals(28, tokens.nextInt());
+    assertEquals(0, tokens.nextInt());
+    assertEquals(35, tokens.nextInt());
+    assertEquals(5, tokens.nextInt());
+    assertEquals("waiting", tokens.nextToken());
+    assertEquals("Front Waiting Room", tokens.rest());
+    assertEquals(false, tokens.hasMoreTokens());
+    assertEquals("", tokens.rest());
+
+    assertTrue("\\r\\n is one line terminator", tokens.nextLine());
+    assertEquals("", tokens.getLine());
+    assertTrue(tokens.nextLine());
+    assertEquals(3, tokens.getLineNumber());
+    assertEquals("last line", tokens.getLine());
+    assertEquals(false, tokens.nextLine());
+  }
+
+  /**
+   * Test nextInt() and nextDouble(), expect the same values and errors as
+   * Integer.parseInt() and Double.parseDouble().
+   *
+   * @throws IOException if the source cannot be read
+   */
+  @Test
+  public void testNumbers() throws IOException {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    double[] expected = new double[1000];
+    for (int i = 0; i < expected.length; i++) {
+      String s = String.format(Locale.ROOT, "%." + random.nextInt(4) + "f",
+          30 + random.nextDouble() * 15);
+      expected[i] = Double.parseDouble(s);
+      sb.append(s).append(' ');
+    }
+    sb.append("-1.5e2 +7 2147483647 -2147483648");
+    SpecTokenizer tokens = new SpecTokenizer(new StringReader(sb.toString()));
+    tokens.nextLine();
+    for (double d : expected) {
+      assertEquals(d, tokens.nextDouble(), 0);
+    }
+    assertEquals(-150, tokens.nextDouble(), 0);
+    assertEquals(7, tokens.nextInt());
+    assertEquals(Integer.MAX_VALUE, tokens.nextInt());
+    assertEquals(Integer.MIN_VALUE, tokens.nextInt());
+
+    tokens = new SpecTokenizer(new StringReader("12a 2147483648"));
+    tokens.nextLine();
+    for (int i = 0; i < 2; i++) {
+      try {
+        tokens.nextInt();
+        fail("Expected NumberFormatException but not happening.");
+      } catch (NumberFormatException e) {
+        assertTrue(e.getMessage().startsWith("Line 1: For input string"));
+      }
+    }
+    try {
+      tokens.nextInt();
+      fail("Expected IllegalArgumentException but not happening.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Line 1: Missing field.", e.getMessage());
+    }
+  }
+
+  /**
+   * Test nextDateTime(), expect the same date and time as the yyyy/MM/dd HH:mm pattern,
+   * including the end of month adjustment.
+   *
+   * @throws IOException if the source cannot be read
+   */
+  @Test
+  public void testDateTime() throws IOException {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    String[] valid = {"2024/10/07 10:30", "2024/02/29 00:00", "2023/02/30 23:59",
+        "2023/04/31 12:00"};
+    for (String s : valid) {
+      SpecTokenizer tokens = new SpecTokenizer(new StringReader(s));
+      tokens.nextLine();
+      assertEquals(LocalDateTime.parse(s, formatter), tokens.nextDateTime());
+    }
+    String[] invalid = {"2024/10/7 10:30", "2024-10-07 10:30", "2024/13/01 10:30",
+        "2024/10/32 10:30", "2024/10/07 24:00", "2024/10/07"};
+    for (String s : invalid) {
+      SpecTokenizer tokens = new SpecTokenizer(new StringReader(s));
+      tokens.nextLine();
+      try {
+        tokens.nextDateTime();
+        fail("Expected IllegalArgumentException but not happening: " + s);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+}
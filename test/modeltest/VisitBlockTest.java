@@ -0,0 +1,88 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import clinic.SpecTokenizer;
+import clinic.VisitBlock;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link VisitBlock} class.
+ */
+public class VisitBlockTest {
+
+  /**
+   * Helper method to build visit lines after a header line.
+   *
+   * @param n the number of visit lines
+   * @param badLine the index of the visit line with a bad temperature, or -1 for none
+   * @return the specification text
+   */
+  private static String visits(int n, int badLine) {
+    StringBuilder sb = new StringBuilder("header\n");
+    LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+    for (int i = 0; i < n; i++) {
+      LocalDateTime t = start.plusMinutes(i);
+      sb.append(String.format("%d,%04d/%02d/%02d %02d:%02d %s Complaint  %d\n", i % 7 + 1,
+          t.getYear(), t.getMonthValue(), t.getDayOfMonth(), t.getHour(), t.getMinute(),
+          i == badLine ? "hot" : "37." + i % 10, i));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Test parsing a batch of several chunks in parallel, expect the same fields in line
+   * order as parsing the lines one by one.
+   *
+   * @throws IOException if the source cannot be read
+   */
+  @Test
+  public void testParallelParse() throws IOException {
+    int n = 10000;
+    SpecTokenizer reader = new SpecTokenizer(new StringReader(visits(n, -1)));
+    reader.nextLine();
+    VisitBlock block = new VisitBlock(n);
+    block.read(reader, n);
+    block.parse(new ForkJoinPool(4));
+    assertEquals(n, block.size());
+
+    SpecTokenizer expected = new SpecTokenizer(new StringReader(visits(n, -1)));
+    expected.nextLine();
+    for (int i = 0; i < n; i++) {
+      expected.nextLine();
+      assertEquals(expected.nextInt(), block.getPatientId(i));
+      assertEquals(expected.nextDateTime(), block.getRegistrationDateTime(i));
+      assertEquals(expected.nextDouble(), block.getBodyTemperature(i), 0);
+      assertEquals(expected.rest(), block.getChiefComplaint(i));
+    }
+  }
+
+  /**
+   * Test a bad line in a later chunk, expect its error only when its line is reached, with
+   * its line number in the specification.
+   *
+   * @throws IOException if the source cannot be read
+   */
+  @Test
+  public void testErrorLineNumber() throws IOException {
+    SpecTokenizer reader = new SpecTokenizer(new StringReader(visits(10000, 9000)));
+    reader.nextLine();
+    VisitBlock block = new VisitBlock(10000);
+    block.read(reader, 10000);
+    block.parse(new ForkJoinPool(4));
+    assertEquals(8999 % 7 + 1, block.getPatientId(8999));
+    try {
+      block.getPatientId(9000);
+      fail("Expected NumberFormatException but not happening.");
+    } catch (NumberFormatException e) {
+      assertEquals("Line 9002: For input string: \"hot\"", e.getMessage());
+    }
+    assertEquals("Line 9003: Unreasonable body temperature.",
+        block.error(9001, "Unreasonable body temperature.").getMessage());
+  }
+}
@@ -0,0 +1,83 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import clinic.VisitStatistics;
+import clinic.VisitStore;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link VisitStatistics} class.
+ */
+public class VisitStatisticsTest {
+
+  /**
+   * Test the statistics of a few visits, expect the exact values.
+   */
+  @Test
+  public void testSmallSet() {
+    VisitStore store = VisitStore.getInstance();
+    int[] rows = {
+        store.add(1, LocalDateTime.of(2024, 10, 7, 10, 30), "Headaches", 38.2), // Monday
+        store.add(2, LocalDateTime.of(2024, 10, 8, 9, 0), "Cough", 37.0), // Tuesday
+        store.add(1, LocalDateTime.of(2024, 10, 14, 9, 0), "Cough", 36.8), // Monday
+        store.add(3, LocalDateTime.of(2024, 11, 2, 9, 0), "Chest pain", 39.0)}; // Saturday
+    VisitStatistics stats = VisitStatistics.compute(store.columns(), rows, new ForkJoinPool(2));
+    assertEquals(4, stats.getVisitCount());
+    assertEquals(0.5, stats.getFeverRate(), 1e-9);
+    assertEquals(2, (long) stats.getVisitsPerWeekday().get(DayOfWeek.MONDAY));
+    assertEquals(1, (long) stats.getVisitsPerWeekday().get(DayOfWeek.SATURDAY));
+    assertEquals(0, (long) stats.getVisitsPerWeekday().get(DayOfWeek.SUNDAY));
+    assertEquals(Arrays.asList(YearMonth.of(2024, 10), YearMonth.of(2024, 11)), 
+        stats.getMonths());
+    assertEquals(37.333, stats.getMeanTemperature(YearMonth.of(2024, 10)), 0.001);
+    assertEquals(37.0, stats.getPercentileTemperature(YearMonth.of(2024, 10), 50), 1e-9);
+    assertEquals(38.2, stats.getPercentileTemperature(YearMonth.of(2024, 10), 100), 1e-9);
+    assertTrue(Double.isNaN(stats.getMeanTemperature(YearMonth.of(2024, 12))));
+  }
+
+  /**
+   * Test a large set split into many tasks, expect the same statistics as merging the 
+   * statistics of its parts.
+   */
+  @Test
+  public void testParallelMatchesMerge() {
+    VisitStore store = VisitStore.getInstance();
+    Random random = new Random(3);
+    LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+    int[] rows = new int[50000];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = store.add(i, start.plusMinutes(i * 97L), "Cough", 35 + random.nextInt(60) / 10.0);
+    }
+    VisitStore.Columns columns = store.columns();
+    VisitStatistics all = VisitStatistics.compute(columns, rows, new ForkJoinPool(4));
+    VisitStatistics merged = VisitStatistics.compute(columns, 
+        Arrays.copyOfRange(rows, 0, 20000), new ForkJoinPool(1))
+        .merge(VisitStatistics.compute(columns, 
+            Arrays.copyOfRange(rows, 20000, rows.length), new ForkJoinPool(1)));
+    assertEquals(rows.length, all.getVisitCount());
+    assertEquals(merged.getFeverRate(), all.getFeverRate(), 1e-12);
+    assertEquals(merged.getVisitsPerWeekday(), all.getVisitsPerWeekday());
+    assertEquals(merged.getMonths(), all.getMonths());
+    for (YearMonth month : all.getMonths()) {
+      assertEquals(merged.getMeanTemperature(month), all.getMeanTemperature(month), 1e-9);
+      assertEquals(merged.getPercentileTemperature(month, 90), 
+          all.getPercentileTemperature(month, 90), 1e-9);
+    }
+  }
+
+  /**
+   * Test the percentile range, expect IllegalArgumentException.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new VisitStatistics().getPercentileTemperature(YearMonth.of(2024, 10), 0);
+  }
+}
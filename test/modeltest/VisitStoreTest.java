@@ -0,0 +1,102 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import clinic.Patient;
+import clinic.VisitRecord;
+import clinic.VisitRecordInterface;
+import clinic.VisitStore;
+import java.time.LocalDateTime;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the functionality of the {@link VisitStore} class.
+ */
+public class VisitStoreTest {
+
+  /**
+   * Test add() and the column getters, expect the fields to be stored in the rows.
+   */
+  @Test
+  public void testColumns() {
+    VisitStore store = VisitStore.getInstance();
+    LocalDateTime time = LocalDateTime.of(2024, 10, 7, 10, 30);
+    int row1 = store.add(7, time, "Headaches", 38.2);
+    int row2 = store.add(8, time.plusDays(1), "Headaches", 36.85);
+    assertEquals(row1 + 1, row2);
+    assertEquals(time, VisitStore.fromMinute(store.getMinute(row1)));
+    assertEquals(38.2, store.getTemperature(row1), 0.001);
+    assertEquals(36.85, store.getTemperature(row2), 0.001);
+    assertEquals(7, store.getPatientId(row1));
+    assertEquals("Same complaint, same code",
+        store.getComplaintCode(row1), store.getComplaintCode(row2));
+    assertEquals("Headaches", store.getComplaint(store.getComplaintCode(row2)));
+  }
+
+  /**
+   * Test the view of a row, expect it to behave like a VisitRecord with the same fields.
+   */
+  @Test
+  public void testView() {
+    VisitStore store = VisitStore.getInstance();
+    VisitRecordInterface view =
+        store.get(store.add(1, LocalDateTime.of(2024, 10, 7, 10, 30), "Headaches", 38.2));
+    VisitRecord record = new VisitRecord("2024/10/07 10:30", "Headaches", 38.2);
+    assertEquals(record.toString(), view.toString());
+    assertEquals("38.2", view.getFormattedBodyTemperature());
+    assertTrue(view.equals(record) && record.equals(view));
+    assertEquals(record.hashCode(), view.hashCode());
+    assertEquals(0, view.compareTo(record));
+    VisitRecord close = new VisitRecord("2024/10/07 10:30", "Headaches", 38.196);
+    assertTrue(view.equals(close) && close.equals(record));
+    assertEquals(view.hashCode(), close.hashCode());
+  }
+
+  /**
+   * Test patients keep their visit records in the store, sorted and without duplicate times.
+   */
+  @Test
+  public void testPatientRows() {
+    Patient patient = new Patient("Aandi", "Acute", "1981/01/01");
+    int before = VisitStore.getInstance().size();
+    patient.addVisitRecord("2024/10/07 10:30", "Headaches", 38.2);
+    patient.addVisitRecord("2024/09/20 10:15", "Chest pain", 36.8);
+    assertEquals(null, patient.addVisitRecord("2024/09/20 10:15", "Cough", 37.0));
+    assertEquals(before + 2, VisitStore.getInstance().size());
+    assertEquals("[Visit on: 2024/09/20 10:15, Body Temperature: 36.8°C, "
+        + "Chief Complaint: Chest pain, Visit on: 2024/10/07 10:30, "
+        + "Body Temperature: 38.2°C, Chief Complaint: Headaches]",
+        patient.getVisitRecords().toString());
+    Patient copy = new Patient(patient);
+    copy.addVisitRecord("2024/10/08 09:00", "Cough", 37.0);
+    assertEquals(2, patient.getVisitRecords().size());
+    assertEquals(3, copy.getVisitRecords().size());
+  }
+
+  /**
+   * Test reset(), expect a new empty store, and the views and patients of the old store
+   * to still read their rows.
+   */
+  @Test
+  public void testReset() {
+    VisitStore store = VisitStore.getInstance();
+    VisitRecordInterface view =
+        store.get(store.add(1, LocalDateTime.of(2024, 10, 7, 10, 30), "Headaches", 38.2));
+    Patient patient = new Patient("Aandi", "Acute", "1981/01/01");
+    patient.addVisitRecord("2024/09/20 10:15", "Chest pain", 36.8);
+    VisitStore reset = VisitStore.reset();
+    assertTrue(reset == VisitStore.getInstance() && reset != store);
+    assertEquals(0, reset.size());
+    assertEquals(-1, reset.codeOf("Headaches"));
+    reset.add(2, LocalDateTime.of(2024, 10, 8, 9, 0), "Cough", 37.0);
+    assertEquals("Headaches", view.getChiefComplaint());
+    assertEquals(-1, reset.rowOf(view));
+    patient.addVisitRecord("2024/10/07 10:30", "Headaches", 38.2);
+    assertEquals("[Visit on: 2024/09/20 10:15, Body Temperature: 36.8°C, "
+        + "Chief Complaint: Chest pain, Visit on: 2024/10/07 10:30, "
+        + "Body Temperature: 38.2°C, Chief Complaint: Headaches]",
+        patient.getVisitRecords().toString());
+    assertEquals(1, reset.size());
+  }
+}